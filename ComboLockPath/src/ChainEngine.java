@@ -0,0 +1,111 @@
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A base class for engines that improve a single solution with the mutation operators.
+ * Several independent chains run in parallel and share the best solution seen so far.
+ */
+public abstract class ChainEngine extends SearchEngine {
+	protected InitializationOperator initOp; // The operator that produces the starting solution of each chain
+	protected MutationOperator[] mutationOperators; // The moves applied to the current solution of a chain
+	protected int chains; // The number of chains that run in parallel
+	protected int iterations; // The number of moves tried by each chain
+	private AtomicReference<Solution> bestSolutionSoFar = new AtomicReference<>(); // Shared by all chains
+
+	public ChainEngine(InitializationOperator initOp, MutationOperator[] mutationOperators, int chains, int iterations) {
+		if (mutationOperators.length == 0) {
+			throw new IllegalArgumentException("You must pass at least one mutation operator.");
+		}
+		if (chains < 1) {
+			throw new IllegalArgumentException("You must run at least one chain.");
+		}
+		this.initOp = initOp;
+		this.mutationOperators = mutationOperators;
+		this.chains = chains;
+		this.iterations = iterations;
+	}
+
+	@Override
+	public Solution run(Lock lock) {
+		bestSolutionSoFar.set(null);
+		// More threads than processors would only slow every chain down, so extra chains wait for a thread
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(chains, Runtime.getRuntime().availableProcessors()));
+		ArrayList<Future<?>> futures = new ArrayList<>();
+		for (int c = 0; c < chains; c++) {
+			// The chain seeds are drawn up front, and each chain builds its starting solution and draws its moves
+			// and acceptance decisions from its own seed, so a run with a fixed number of iterations is repeatable
+			final long seed = getRandom().nextLong();
+			final int chain = c;
+			futures.add(executor.submit(() -> startChain(lock, seed, chain)));
+		}
+		try {
+			for (Future<?> future: futures) {
+				future.get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException("Search chain failed", e);
+		} finally {
+			executor.shutdown();
+		}
+		return bestSolutionSoFar.get();
+	}
+
+	/**
+	 * Build the starting solution of a chain in its own thread and run the chain, unless the search has
+	 * already been asked to stop and another chain has a solution to return
+	 */
+	private void startChain(Lock lock, long seed, int chain) {
+		if (shouldStop() && getBest() != null) return;
+		Random random = new Random(seed);
+		Solution start = initOp.run(lock, random);
+		offer(start);
+		if (!shouldStop()) runChain(lock, start, random, chain);
+	}
+
+	/**
+	 * Run one chain of moves
+	 * @param lock the lock whose words must be visited
+	 * @param start the starting solution of the chain
+	 * @param random the source of randomness for the moves and acceptance decisions of this chain, which is
+	 *        not shared with any other chain
+	 * @param chain the index of the chain, used in output
+	 */
+	protected abstract void runChain(Lock lock, Solution start, Random random, int chain);
+
+	/**
+	 * Apply a randomly chosen mutation operator to the solution
+	 * @param random the source of randomness of the chain, used to choose and run the operator
+	 */
+	protected Solution move(Lock lock, Solution current, Random random) {
+		MutationOperator mutation = mutationOperators[random.nextInt(mutationOperators.length)];
+		return mutation.run(lock, current, random);
+	}
+
+	/**
+	 * Record a solution as the best so far if it beats the current best of all chains
+	 * @return true iff the solution became the best so far
+	 */
+	protected boolean offer(Solution solution) {
+		while (true) {
+			Solution best = bestSolutionSoFar.get();
+			if (best != null && best.getScore() <= solution.getScore()) return false;
+			if (bestSolutionSoFar.compareAndSet(best, solution)) {
+				if (best != null && verbosity >= 0) System.out.println("BEST " + getName() + ": " + solution.getScore());
+				reportBest(solution);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @return the best solution found by any chain so far
+	 */
+	protected Solution getBest() {
+		return bestSolutionSoFar.get();
+	}
+}
@@ -0,0 +1,394 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Edge assembly crossover.  The paths are treated as tours through the words plus the starting
+ * point.  The edges the parents do not share are split into AB-cycles that alternate between the
+ * two parents, one AB-cycle is applied to a parent, and the subtours this creates are merged with
+ * the cheapest 2-opt style reconnection among the nearest words.  For the latency score, the cost of
+ * each edge in a reconnection is its distance times the number of words after it, estimated from the
+ * positions of its ends in the base parent, and the finished tour is walked in its cheaper direction.
+ * Each child keeps almost all of the edges of its base parent, which are good edges by construction,
+ * so its sketch is updated from the sketch of the base parent as edges are removed and added.
+ *
+ * The operator keeps scratch buffers between calls, so an instance must not be shared by threads.
+ */
+public class CrossoverEAX extends CrossoverOperator {
+	private int tries; // The number of AB-cycles tried for each child; the best resulting child is kept
+	private Random random; // The source of randomness of the current call
+
+	// Scratch buffers, sized for the lock of the last call.  Node wordCount is the starting point.
+	private int nodeCount = -1;
+	private int[] adjA; // adjA[2v] and adjA[2v+1] are the neighbours of v in the tour of parent A
+	private int[] adjB; // the same for parent B
+	private int[] positionA; // positionA[v] is the position of v in the path of parent A, -1 for the starting point
+	private int[] positionB; // the same for parent B
+	private int[] basePosition; // the positions in the parent the current child is built from
+	private int[] work; // the adjacency of the child under construction
+	private int[] childSketch; // the sketch of the tour of the child under construction, or null if it must be built again
+	private int[] onlyA; // up to two neighbours of v through edges in A but not in B, starting at 2v
+	private int[] onlyB; // up to two neighbours of v through edges in B but not in A, starting at 2v
+	private int[] countA; // the number of entries of onlyA that are still unused
+	private int[] countB; // the number of entries of onlyB that are still unused
+	private int[] walk; // the nodes of the current alternating walk
+	private int[] posEven; // the even position of each node in the walk, or -1
+	private int[] posOdd; // the odd position of each node in the walk, or -1
+	private int[] label; // the subtour of each node
+	private int[] subtourSize; // the number of nodes in each subtour
+	private int[] subtourStart; // a node of each subtour
+
+	public CrossoverEAX() {
+		this(5);
+	}
+
+	/**
+	 * @param tries the number of AB-cycles tried for each child
+	 */
+	public CrossoverEAX(int tries) {
+		if (tries < 1) {
+			throw new IllegalArgumentException("At least one AB-cycle must be tried.");
+		}
+		this.tries = tries;
+	}
+
+	@Override
+	public Solution[] run(Lock lock, Solution[] parents, Random random) {
+		this.random = random;
+		allocate(lock.getWordCount() + 1);
+		toAdjacency(parents[0], adjA, positionA);
+		toAdjacency(parents[1], adjB, positionB);
+
+		ArrayList<int[]> cycles = findCycles();
+		if (cycles.isEmpty()) {
+			return new Solution[] {copy(lock, parents[0]), copy(lock, parents[1])};
+		}
+		return new Solution[] {bestChild(lock, parents[0], adjA, positionA, cycles, true),
+				bestChild(lock, parents[1], adjB, positionB, cycles, false)};
+	}
+
+	private void allocate(int nodes) {
+		if (nodes == nodeCount) return;
+		nodeCount = nodes;
+		adjA = new int[2 * nodes];
+		adjB = new int[2 * nodes];
+		positionA = new int[nodes];
+		positionB = new int[nodes];
+		work = new int[2 * nodes];
+		onlyA = new int[2 * nodes];
+		onlyB = new int[2 * nodes];
+		countA = new int[nodes];
+		countB = new int[nodes];
+		walk = new int[2 * nodes + 1];
+		posEven = new int[nodes];
+		posOdd = new int[nodes];
+		label = new int[nodes];
+		subtourSize = new int[nodes];
+		subtourStart = new int[nodes];
+	}
+
+	/**
+	 * Fill the adjacency table of the tour start -> path -> start and the position of each node in the path
+	 */
+	private void toAdjacency(Solution solution, int[] adj, int[] position) {
+		int start = nodeCount - 1;
+		int last = start;
+		position[start] = -1;
+		for (int i = 0; i < nodeCount - 1; i++) {
+			int word = solution.getIthWord(i);
+			adj[2 * last + 1] = word;
+			adj[2 * word] = last;
+			position[word] = i;
+			last = word;
+		}
+		adj[2 * last + 1] = start;
+		adj[2 * start] = last;
+	}
+
+	private boolean adjacent(int[] adj, int u, int v) {
+		return adj[2 * u] == v || adj[2 * u + 1] == v;
+	}
+
+	/**
+	 * Split the edges that are in exactly one parent into AB-cycles
+	 * @return each cycle as its list of nodes c[0], c[1], ... where the edge (c[i], c[i+1]) comes from parent A for
+	 *         even i and from parent B for odd i, and the last edge closes the cycle back to c[0]
+	 */
+	private ArrayList<int[]> findCycles() {
+		for (int v = 0; v < nodeCount; v++) {
+			countA[v] = 0;
+			countB[v] = 0;
+			posEven[v] = -1;
+			posOdd[v] = -1;
+			for (int k = 0; k < 2; k++) {
+				if (!adjacent(adjB, v, adjA[2 * v + k])) onlyA[2 * v + countA[v]++] = adjA[2 * v + k];
+				if (!adjacent(adjA, v, adjB[2 * v + k])) onlyB[2 * v + countB[v]++] = adjB[2 * v + k];
+			}
+		}
+
+		ArrayList<int[]> cycles = new ArrayList<>();
+		for (int s = 0; s < nodeCount; s++) {
+			while (countA[s] > 0) {
+				int length = 1;
+				walk[0] = s;
+				posEven[s] = 0;
+				while (length > 1 || countA[s] > 0) {
+					int cur = walk[length - 1];
+					boolean fromA = (length - 1) % 2 == 0;
+					int next = takeEdge(fromA ? onlyA : onlyB, fromA ? countA : countB, cur);
+					walk[length] = next;
+					// The walk closes a cycle when it reaches a node it left by an edge of the type now needed
+					int[] pos = fromA ? posOdd : posEven;
+					int p = pos[next];
+					if (p == -1) {
+						pos[next] = length;
+						length++;
+						continue;
+					}
+					int[] cycle = new int[length - p];
+					if (p % 2 == 0) {
+						System.arraycopy(walk, p, cycle, 0, length - p);
+					}
+					else {
+						// Rotate the cycle so that it starts with an edge from A
+						System.arraycopy(walk, p + 1, cycle, 0, length - p - 1);
+						cycle[length - p - 1] = walk[p];
+					}
+					cycles.add(cycle);
+					for (int i = p + 1; i < length; i++) {
+						if (i % 2 == 0) posEven[walk[i]] = -1;
+						else posOdd[walk[i]] = -1;
+					}
+					length = p + 1;
+				}
+				posEven[s] = -1;
+			}
+		}
+		return cycles;
+	}
+
+	/**
+	 * Pick a random unused edge at node v from the given table and remove it at both ends
+	 * @return the other end of the edge
+	 */
+	private int takeEdge(int[] only, int[] count, int v) {
+		int k = (count[v] == 1) ? 0 : random.nextInt(count[v]);
+		int u = only[2 * v + k];
+		only[2 * v + k] = only[2 * v + count[v] - 1];
+		count[v]--;
+		for (int j = 0; j < count[u]; j++) {
+			if (only[2 * u + j] == v) {
+				only[2 * u + j] = only[2 * u + count[u] - 1];
+				count[u]--;
+				break;
+			}
+		}
+		return u;
+	}
+
+	/**
+	 * Apply up to tries randomly chosen AB-cycles to a parent and keep the best child
+	 * @param parent the parent the child is built from
+	 * @param base the adjacency of the parent the child is built from
+	 * @param position the positions of the words in the parent the child is built from
+	 * @param baseIsA whether the base is parent A, whose edges are at the even positions of each cycle
+	 */
+	private Solution bestChild(Lock lock, Solution parent, int[] base, int[] position, ArrayList<int[]> cycles,
+			boolean baseIsA) {
+		basePosition = position;
+		Solution best = null;
+		int[] order = new int[cycles.size()];
+		for (int i = 0; i < order.length; i++) order[i] = i;
+		for (int t = 0; t < tries && t < order.length; t++) {
+			int pick = t + random.nextInt(order.length - t);
+			int chosen = order[pick];
+			order[pick] = order[t];
+			order[t] = chosen;
+
+			System.arraycopy(base, 0, work, 0, base.length);
+			// The tour of the parent is its path plus the edge from its last word back to the starting point
+			childSketch = parent.getSketch().clone();
+			EdgeSketch.add(childSketch, toWord(base[2 * (nodeCount - 1)]), -1);
+			int[] cycle = cycles.get(chosen);
+			int offset = baseIsA ? 0 : 1;
+			// Remove the base edges of the cycle before adding the others, so every node has a free slot
+			for (int i = offset; i < cycle.length; i += 2) {
+				removeEdge(cycle[i], cycle[(i + 1) % cycle.length]);
+			}
+			for (int i = 1 - offset; i < cycle.length; i += 2) {
+				addEdge(cycle[i], cycle[(i + 1) % cycle.length]);
+			}
+			mergeSubtours(lock);
+			Solution child = toSolution(lock);
+			if (best == null || child.getScore() < best.getScore()) best = child;
+		}
+		return best;
+	}
+
+	private void removeEdge(int u, int v) {
+		if (work[2 * u] == v) work[2 * u] = -1;
+		else work[2 * u + 1] = -1;
+		if (work[2 * v] == u) work[2 * v] = -1;
+		else work[2 * v + 1] = -1;
+		if (childSketch != null && !EdgeSketch.remove(childSketch, toWord(u), toWord(v))) childSketch = null;
+	}
+
+	private void addEdge(int u, int v) {
+		if (work[2 * u] == -1) work[2 * u] = v;
+		else work[2 * u + 1] = v;
+		if (work[2 * v] == -1) work[2 * v] = u;
+		else work[2 * v + 1] = u;
+		if (childSketch != null) EdgeSketch.add(childSketch, toWord(u), toWord(v));
+	}
+
+	/**
+	 * @return the word of node v, or -1 for the starting point
+	 */
+	private int toWord(int v) {
+		return (v == nodeCount - 1) ? -1 : v;
+	}
+
+	/**
+	 * @return the neighbour of v in the child that is not prev
+	 */
+	private int next(int v, int prev) {
+		return (work[2 * v] != prev) ? work[2 * v] : work[2 * v + 1];
+	}
+
+	/**
+	 * Label the subtours of the child
+	 * @return the number of subtours
+	 */
+	private int labelSubtours() {
+		for (int v = 0; v < nodeCount; v++) label[v] = -1;
+		int subtours = 0;
+		for (int v = 0; v < nodeCount; v++) {
+			if (label[v] != -1) continue;
+			subtourStart[subtours] = v;
+			subtourSize[subtours] = 0;
+			int prev = work[2 * v + 1];
+			int cur = v;
+			do {
+				label[cur] = subtours;
+				subtourSize[subtours]++;
+				int nxt = next(cur, prev);
+				prev = cur;
+				cur = nxt;
+			} while (cur != v);
+			subtours++;
+		}
+		return subtours;
+	}
+
+	private int distance(Lock lock, int u, int v) {
+		return lock.distance(toWord(u), toWord(v));
+	}
+
+	/**
+	 * @return the estimated contribution of the edge (u, v) to the latency score: its distance times the number
+	 *         of words after it, taking the later of its ends in the base parent as the position of the edge
+	 */
+	private long cost(Lock lock, int u, int v) {
+		int words = nodeCount - 1;
+		return (long) (words - Math.max(basePosition[u], basePosition[v])) * distance(lock, u, v);
+	}
+
+	/**
+	 * Join the subtours into one tour.  The smallest subtour is repeatedly joined to another by removing one
+	 * edge from each and reconnecting their ends, choosing the exchange among the nearest words with the
+	 * smallest change in the position weighted edge costs.
+	 */
+	private void mergeSubtours(Lock lock) {
+		int subtours = labelSubtours();
+		while (subtours > 1) {
+			int smallest = 0;
+			for (int t = 1; t < subtours; t++) {
+				if (subtourSize[t] < subtourSize[smallest]) smallest = t;
+			}
+			long bestGain = Long.MAX_VALUE;
+			int bestU = -1, bestU2 = -1, bestW = -1, bestW2 = -1;
+			boolean bestCrossed = false;
+			for (int pass = 0; pass < 2 && bestU == -1; pass++) {
+				// The first pass looks at the nearest words only, the second at every word if that found nothing
+				int start = subtourStart[smallest];
+				int prev = work[2 * start + 1];
+				int u = start;
+				do {
+					int u2 = next(u, prev);
+					int[] candidates = (pass == 0) ? lock.getNearest(toWord(u)) : null;
+					int candidateCount = (pass == 0) ? candidates.length + 1 : nodeCount;
+					for (int c = 0; c < candidateCount; c++) {
+						int w;
+						if (pass == 1) w = c;
+						else if (c < candidates.length) w = candidates[c];
+						else w = nodeCount - 1;
+						if (label[w] == smallest) continue;
+						for (int k = 0; k < 2; k++) {
+							int w2 = work[2 * w + k];
+							long removed = cost(lock, u, u2) + cost(lock, w, w2);
+							long straight = cost(lock, u, w) + cost(lock, u2, w2) - removed;
+							long crossed = cost(lock, u, w2) + cost(lock, u2, w) - removed;
+							if (straight < bestGain) {
+								bestGain = straight;
+								bestU = u; bestU2 = u2; bestW = w; bestW2 = w2;
+								bestCrossed = false;
+							}
+							if (crossed < bestGain) {
+								bestGain = crossed;
+								bestU = u; bestU2 = u2; bestW = w; bestW2 = w2;
+								bestCrossed = true;
+							}
+						}
+					}
+					prev = u;
+					u = u2;
+				} while (u != start);
+			}
+			removeEdge(bestU, bestU2);
+			removeEdge(bestW, bestW2);
+			if (bestCrossed) {
+				addEdge(bestU, bestW2);
+				addEdge(bestU2, bestW);
+			}
+			else {
+				addEdge(bestU, bestW);
+				addEdge(bestU2, bestW2);
+			}
+			subtours = labelSubtours();
+		}
+	}
+
+	/**
+	 * Turn the tour into a path from the starting point, walking it in the direction with the lower score
+	 */
+	private Solution toSolution(Lock lock) {
+		int start = nodeCount - 1;
+		Solution forward = new Solution(lock);
+		Solution backward = new Solution(lock);
+		int prev = start;
+		int cur = work[2 * start];
+		while (cur != start) {
+			forward.addWord(cur);
+			int nxt = next(cur, prev);
+			prev = cur;
+			cur = nxt;
+		}
+		for (int i = forward.getLength() - 1; i >= 0; i--) {
+			backward.addWord(forward.getIthWord(i));
+		}
+		Solution retVal = (forward.getScore() <= backward.getScore()) ? forward : backward;
+		// The path leaves out the edge that closes the tour at its last word
+		if (childSketch != null && EdgeSketch.remove(childSketch, retVal.getIthWord(retVal.getLength() - 1), -1)) {
+			retVal.setSketch(childSketch);
+		}
+		return retVal;
+	}
+
+	private Solution copy(Lock lock, Solution solution) {
+		Solution retVal = new Solution(lock);
+		for (int i = 0; i < solution.getLength(); i++) {
+			retVal.addWord(solution.getIthWord(i));
+		}
+		retVal.setSketch(solution.getSketch());
+		return retVal;
+	}
+}
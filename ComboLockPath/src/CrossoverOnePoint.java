@@ -0,0 +1,46 @@
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Create 2 children by copying the words up to a random point from one parent, and
+ * then adding the remaining words in the order they appear in the other parent
+ */
+public class CrossoverOnePoint extends CrossoverOperator {
+
+	@Override
+	public Solution[] run(Lock lock, Solution[] parents, Random random) {
+		Solution[] children = {new Solution(lock), new Solution(lock)};
+		
+		int point = random.nextInt(lock.getWordCount()-1);
+		
+		HashSet<Integer> child1Words = new HashSet<>();
+		HashSet<Integer> child2Words = new HashSet<>();
+
+		for (int i = 0; i <= point; i++) {
+			int word = parents[0].getIthWord(i);
+			children[0].addWord(word);
+			child1Words.add(word);
+			word = parents[1].getIthWord(i);
+			children[1].addWord(word);
+			child2Words.add(word);
+		}
+		for (int i = 0; i < lock.getWordCount(); i++) {
+			int word = parents[1].getIthWord(i);
+			if (!child1Words.contains(word)) {
+				children[0].addWord(word);
+				child1Words.add(word);
+			}
+			word = parents[0].getIthWord(i);
+			if (!child2Words.contains(word)) {
+				children[1].addWord(word);
+				child2Words.add(word);
+			}
+		}
+		if (child1Words.size() != lock.getWordCount() || child1Words.size() != lock.getWordCount()) {
+			throw new RuntimeException("Child has an incorrect number of words.");
+		}
+		
+		return children;
+	}
+
+}
@@ -0,0 +1,24 @@
+import java.util.Random;
+
+/**
+ * A base class for an operator that combines two parent solutions
+ * into child solutions.
+ */
+public abstract class CrossoverOperator {
+	/**
+	 * Combine two parents
+	 * @param random the source of randomness of the search that runs the operator
+	 */
+	public abstract Solution[] run(Lock lock, Solution[] parents, Random random);
+
+	/**
+	 * Combine two parents using the shared generator in Optimizer
+	 */
+	public Solution[] run(Lock lock, Solution[] parents) {
+		return run(lock, parents, Optimizer.prng);
+	}
+
+	public String getName() {
+		return getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,71 @@
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Copy the prefix the parents share, then swap the segments where the parents differ
+ * until they reach the same word again, and append the remaining words in parent order
+ */
+public class CrossoverResync extends CrossoverOperator {
+
+	@Override
+	public Solution[] run(Lock lock, Solution[] parents, Random random) {
+		Solution[] children = {new Solution(lock), new Solution(lock)};
+		if (parents[0].equals(parents[1])) {
+			throw new RuntimeException("Duplicate parents: " + parents[0] + "\n" + parents[1]);
+		}
+		// Find a point where the solutions diverge
+		HashSet<Integer> child0Words = new HashSet<>();
+		HashSet<Integer> child1Words = new HashSet<>();
+		int index = 0;
+		while(parents[0].getIthWord(index) == parents[1].getIthWord(index)) {
+			int word = parents[0].getIthWord(index);
+			children[0].addWord(word);
+			children[1].addWord(word);
+			child0Words.add(word);
+			child1Words.add(word);
+			index++;
+		}
+		
+		if (index == lock.getWordCount()) {
+			throw new RuntimeException("Duplicate solutions were found in the population");
+		}
+		
+		// Add words from parent 0 to child 1 until we get to the next word queued up in parent 1
+		int nextWordIn1 = parents[1].getIthWord(index);
+		int index1 = index;
+		while (parents[0].getIthWord(index1) != nextWordIn1 && index1 < lock.getWordCount()) {
+			int word = parents[0].getIthWord(index1);
+			if (child1Words.contains(word)) throw new RuntimeException("Error in algorithm");
+			children[1].addWord(word);
+			child1Words.add(word);
+			index1++;
+		}
+		
+		// Add words from parent 1 to child 0 until we get to the next word queued up in parent 0
+		int index2 = index;
+		int nextWordIn0 = parents[0].getIthWord(index2);
+		while (parents[1].getIthWord(index2) != nextWordIn0 && index2 < lock.getWordCount()) {
+			int word = parents[1].getIthWord(index2);
+			if (child0Words.contains(word)) throw new RuntimeException("Error in algorithm");
+			children[0].addWord(word);
+			child0Words.add(word);
+			index2++;
+		}
+		
+		// Add remaining words to children using closest city heuristic
+		while (index < lock.getWordCount()) {
+			int word = parents[0].getIthWord(index);
+			if (!child0Words.contains(word)) {
+				children[0].addWord(word);
+			}
+			word = parents[1].getIthWord(index);
+			if (!child1Words.contains(word)) {
+				children[1].addWord(word);
+			}
+			index++;
+		}
+		
+		return children;
+	}
+
+}
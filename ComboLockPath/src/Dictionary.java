@@ -0,0 +1,54 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Scanner;
+
+/**
+ * The word list and frequency counts that locks take their words from.  Reading the list once and sharing
+ * it lets many locks be built without reading the file again.
+ */
+public class Dictionary {
+	static final String WORD_FILE = "words_with_frequency.txt"; // The file read by load()
+	private ArrayList<String> words = new ArrayList<>(); // The words, in lower case
+	private ArrayList<Long> counts = new ArrayList<>(); // counts.get(i) is the frequency count of words.get(i)
+
+	/**
+	 * Read a word list
+	 * @param fileName a file of words, each followed by its frequency count
+	 */
+	public Dictionary(String fileName) {
+		Scanner sc;
+		try {
+			sc = new Scanner(new File(fileName));
+		} catch (FileNotFoundException e) {
+			throw new RuntimeException("Missing word list");
+		}
+		while (sc.hasNext()) {
+			words.add(sc.next().toLowerCase());
+			counts.add(sc.nextLong());
+		}
+		sc.close();
+	}
+
+	/**
+	 * @return the standard word list
+	 */
+	public static Dictionary load() {
+		return new Dictionary(WORD_FILE);
+	}
+
+	/**
+	 * @return the number of words in the list
+	 */
+	int getSize() {
+		return words.size();
+	}
+
+	String getWord(int i) {
+		return words.get(i);
+	}
+
+	long getCount(int i) {
+		return counts.get(i);
+	}
+}
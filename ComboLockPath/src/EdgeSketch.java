@@ -0,0 +1,135 @@
+import java.util.Arrays;
+
+/**
+ * MinHash sketches of the edge set of a path, used to estimate how similar two paths are
+ * without comparing them word by word.  A sketch uses one permutation hashing: every edge is
+ * hashed once, the top bits of the hash pick a bin, and each bin keeps the smallest value it saw.
+ * A sketch can be updated as edges are added and removed, so a path built from a parent by a few
+ * edge changes does not have to be hashed again, unless a removed edge held the value of its bin.
+ */
+public final class EdgeSketch {
+	static final int BINS = 32; // The number of values in a sketch
+	private static final int BIN_SHIFT = 64 - 5; // Shift that leaves the top log2(BINS) bits of a hash
+	private static final int EMPTY = Integer.MAX_VALUE; // The value of a bin that no edge hashed to
+
+	private EdgeSketch() {
+	}
+
+	/**
+	 * @return the sketch of the undirected edges of the path, including the edge from the starting point
+	 */
+	static int[] of(Solution solution) {
+		int[] sketch = new int[BINS];
+		Arrays.fill(sketch, EMPTY);
+		int lastWord = -1;
+		for (int i = 0; i < solution.getLength(); i++) {
+			int word = solution.getIthWord(i);
+			add(sketch, lastWord, word);
+			lastWord = word;
+		}
+		return sketch;
+	}
+
+	/**
+	 * Add the undirected edge (u, v) to a sketch, where -1 is the starting point
+	 */
+	static void add(int[] sketch, int u, int v) {
+		long hash = hash(u, v);
+		int bin = (int) (hash >>> BIN_SHIFT);
+		int value = (int) (hash & 0x7ffffffeL); // Never equal to EMPTY
+		if (value < sketch[bin]) sketch[bin] = value;
+	}
+
+	/**
+	 * Remove the undirected edge (u, v) from a sketch, where -1 is the starting point
+	 * @return false if the edge held the value of its bin, in which case the sketch is no longer that of the
+	 *         remaining edges and must be built again
+	 */
+	static boolean remove(int[] sketch, int u, int v) {
+		long hash = hash(u, v);
+		int bin = (int) (hash >>> BIN_SHIFT);
+		int value = (int) (hash & 0x7ffffffeL);
+		return value != sketch[bin];
+	}
+
+	private static long hash(int u, int v) {
+		long key = ((long) Math.min(u, v) << 32) | (Math.max(u, v) & 0xffffffffL);
+		return mix(key);
+	}
+
+	/**
+	 * @return an estimate of the Jaccard similarity of the edge sets of two paths, from 0 to 1
+	 */
+	static double similarity(int[] a, int[] b) {
+		int same = 0;
+		int used = 0;
+		for (int i = 0; i < BINS; i++) {
+			if (a[i] == EMPTY && b[i] == EMPTY) continue;
+			used++;
+			if (a[i] == b[i]) same++;
+		}
+		return (used == 0) ? 1.0 : (double) same / used;
+	}
+
+	/**
+	 * @param band a band of BINS / bands consecutive bins
+	 * @return a hash of the values of the sketch in the band.  Sketches that are equal in the band have the same hash.
+	 */
+	static long bandHash(int[] sketch, int band, int bands) {
+		long hash = band;
+		for (int i = band * BINS / bands; i < (band + 1) * BINS / bands; i++) {
+			hash = mix(hash * 31 + sketch[i]);
+		}
+		return hash;
+	}
+
+	/**
+	 * @return the number of bands such that any two sketches whose similarity is at least the given value are
+	 *         equal in at least one band, or 0 if that needs more bands than there are bins
+	 */
+	static int bandsFor(double similarity) {
+		// At most (1 - similarity) * BINS bins differ, so with one more band than that some band has no difference
+		int bands = (int) Math.floor((1.0 - similarity) * BINS + 1e-9) + 1;
+		return (bands <= BINS) ? bands : 0;
+	}
+
+	/**
+	 * Estimate the diversity of a population from the sketches of its members
+	 * @param sketches sketches[i] is the sketch of the ith member
+	 * @param count the number of members
+	 * @return the mean entropy of the bin values across the members, normalised to lie between 0, when every
+	 *         member has the same edges, and 1, when no two members share a bin value
+	 */
+	static double entropy(int[][] sketches, int count) {
+		if (count < 2) return 0.0;
+		int[] values = new int[count];
+		double total = 0.0;
+		for (int bin = 0; bin < BINS; bin++) {
+			for (int m = 0; m < count; m++) {
+				values[m] = sketches[m][bin];
+			}
+			Arrays.sort(values);
+			int run = 1;
+			for (int m = 1; m <= count; m++) {
+				if (m < count && values[m] == values[m - 1]) {
+					run++;
+				}
+				else {
+					double p = (double) run / count;
+					total -= p * Math.log(p);
+					run = 1;
+				}
+			}
+		}
+		return total / BINS / Math.log(count);
+	}
+
+	/**
+	 * The finalizer of the SplitMix64 generator, used to hash edges
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
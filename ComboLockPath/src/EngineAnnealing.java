@@ -0,0 +1,49 @@
+import java.util.Random;
+
+/**
+ * Simulated annealing on a single solution.  Worse moves are accepted with probability
+ * exp(-delta / T), and the temperature cools geometrically over the iterations of each chain.
+ */
+public class EngineAnnealing extends ChainEngine {
+	private double startTemperatureRatio; // The starting temperature as a fraction of the starting score
+	private double endTemperatureRatio; // The final temperature as a fraction of the starting score
+
+	public EngineAnnealing(InitializationOperator initOp, MutationOperator[] mutationOperators, int chains, int iterations) {
+		this(initOp, mutationOperators, chains, iterations, 0.001, 0.000001);
+	}
+
+	public EngineAnnealing(InitializationOperator initOp, MutationOperator[] mutationOperators, int chains, int iterations,
+			double startTemperatureRatio, double endTemperatureRatio) {
+		super(initOp, mutationOperators, chains, iterations);
+		if (startTemperatureRatio <= 0.0 || endTemperatureRatio <= 0.0 || endTemperatureRatio > startTemperatureRatio) {
+			throw new IllegalArgumentException("Temperatures must be positive and must not rise.");
+		}
+		this.startTemperatureRatio = startTemperatureRatio;
+		this.endTemperatureRatio = endTemperatureRatio;
+	}
+
+	@Override
+	protected void runChain(Lock lock, Solution start, Random random, int chain) {
+		Solution current = start;
+
+		// The temperatures are relative to the score of the starting solution
+		double startTemperature = startTemperatureRatio * current.getScore();
+		double endTemperature = endTemperatureRatio * current.getScore();
+		double cooling = Math.pow(endTemperature / startTemperature, 1.0 / Math.max(1, iterations));
+
+		double temperature = startTemperature;
+		for (int i = 0; i < iterations && !shouldStop(); i++) {
+			Solution candidate = move(lock, current, random);
+			double delta = candidate.getScore() - current.getScore();
+			if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+				current = candidate;
+				if (delta < 0) offer(current);
+			}
+			temperature *= cooling;
+			if (verbosity > 0 && (i + 1) % 10000 == 0) {
+				System.out.println("Chain " + chain + " iteration " + (i + 1) + ": current " + current.getScore() +
+						" temperature " + temperature + " bsf " + getBest().getScore());
+			}
+		}
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * Search using the elitist genetic algorithm in Population
+ */
+public class EngineGA extends SearchEngine {
+	private InitializationOperator[] initOps; // The operators used to produce the initial solutions
+	private double[] initOpWeights; // The weight that determines how likely each initialization operator will be used
+	private int populationSize; // The size of a generation
+	private int generations; // The number of generations to run
+	private CrossoverOperator crossoverOperator; // Combines two parents into two children
+	private MutationOperator[] mutationOperators; // The mutation operators to apply to the children
+	private int[] mutationMaxTimes; // The maximum number of times each mutation operator will run
+	private boolean steadyState; // Whether each child replaces the worst member as soon as it is created
+	private double cloneSimilarity = 2.0; // The similarity at which members are culled as near clones
+	private int eliteCount = 0; // The number of fittest members that survive regardless of similarity
+
+	public EngineGA(InitializationOperator[] initOps, double[] initOpWeights, int populationSize, int generations,
+			CrossoverOperator crossoverOperator, MutationOperator[] mutationOperators, int[] mutationMaxTimes, boolean steadyState) {
+		this.initOps = initOps;
+		this.initOpWeights = initOpWeights;
+		this.populationSize = populationSize;
+		this.generations = generations;
+		this.crossoverOperator = crossoverOperator;
+		this.mutationOperators = mutationOperators;
+		this.mutationMaxTimes = mutationMaxTimes;
+		this.steadyState = steadyState;
+	}
+
+	/**
+	 * Make the population preserve diversity when it is culled
+	 * @see Population#setDiversity(double, int)
+	 */
+	public void setDiversity(double cloneSimilarity, int eliteCount) {
+		this.cloneSimilarity = cloneSimilarity;
+		this.eliteCount = eliteCount;
+	}
+
+	@Override
+	public Solution run(Lock lock) {
+		Population population = new Population(lock, initOps, initOpWeights, populationSize, crossoverOperator, steadyState,
+				getRandom(), verbosity, getDeadline());
+		population.setDiversity(cloneSimilarity, eliteCount);
+
+		Solution lastBest = population.getBest();
+		reportBest(lastBest);
+		for (int g = 0; g < generations && !shouldStop(); g++) {
+			if (verbosity >= 0) System.out.println("Generation " + (g+1));
+			population.runGeneration(mutationOperators, mutationMaxTimes);
+			if (population.getBest() != lastBest) {
+				lastBest = population.getBest();
+				reportBest(lastBest);
+			}
+			double gap = getGap();
+			if (!Double.isNaN(gap) && verbosity >= 0) System.out.println("Optimality gap: " + (100.0 * gap) + "%");
+		}
+		return population.getBest();
+	}
+}
@@ -0,0 +1,45 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Late acceptance hill climbing on a single solution.  A move is accepted when it is no worse than
+ * the current solution or than the solution that was current a fixed number of iterations ago.
+ */
+public class EngineLateAcceptance extends ChainEngine {
+	private int historyLength; // The number of iterations a score is remembered
+
+	public EngineLateAcceptance(InitializationOperator initOp, MutationOperator[] mutationOperators, int chains, int iterations) {
+		this(initOp, mutationOperators, chains, iterations, 1000);
+	}
+
+	public EngineLateAcceptance(InitializationOperator initOp, MutationOperator[] mutationOperators, int chains, int iterations,
+			int historyLength) {
+		super(initOp, mutationOperators, chains, iterations);
+		if (historyLength < 1) {
+			throw new IllegalArgumentException("The history must hold at least one score.");
+		}
+		this.historyLength = historyLength;
+	}
+
+	@Override
+	protected void runChain(Lock lock, Solution start, Random random, int chain) {
+		Solution current = start;
+		double[] history = new double[historyLength];
+		Arrays.fill(history, current.getScore());
+
+		for (int i = 0; i < iterations && !shouldStop(); i++) {
+			Solution candidate = move(lock, current, random);
+			int v = i % historyLength;
+			if (candidate.getScore() <= history[v] || candidate.getScore() <= current.getScore()) {
+				boolean improved = candidate.getScore() < current.getScore();
+				current = candidate;
+				if (improved) offer(current);
+			}
+			history[v] = current.getScore();
+			if (verbosity > 0 && (i + 1) % 10000 == 0) {
+				System.out.println("Chain " + chain + " iteration " + (i + 1) + ": current " + current.getScore() +
+						" bsf " + getBest().getScore());
+			}
+		}
+	}
+}
@@ -0,0 +1,308 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Build a path by decomposing the words into clusters.  The words are grouped with a k-medoids
+ * pass on the lock distance, the clusters are ordered by a nearest medoid walk from the initial word,
+ * and the order within each cluster is solved in parallel before the pieces are stitched together.
+ * Words that sit far from the rest of their cluster are held back and then inserted where they add the
+ * least to the score, and a final 2-opt pass over nearest words repairs the seams between the pieces.
+ */
+public class InitOpCluster extends InitializationOperator {
+	private int clusterSize; // The target number of words in each cluster
+	private int medoidIterations; // The maximum number of k-medoids refinement passes
+	private int improvementPasses; // The maximum number of 2-opt passes over each cluster and over the whole path
+	private int threads; // The number of clusters solved at once
+	private static final double DEFER_FACTOR = 2.0; // Words reached by an edge this many times longer than the
+	                                                // average edge of their cluster are inserted afterwards
+
+	public InitOpCluster() {
+		this(200, 10, 20);
+	}
+
+	/**
+	 * @param clusterSize the target number of words in each cluster
+	 * @param medoidIterations the maximum number of k-medoids refinement passes
+	 * @param improvementPasses the maximum number of 2-opt passes used to improve the order within a cluster
+	 *        and the stitched path
+	 */
+	public InitOpCluster(int clusterSize, int medoidIterations, int improvementPasses) {
+		this(clusterSize, medoidIterations, improvementPasses, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param clusterSize the target number of words in each cluster
+	 * @param medoidIterations the maximum number of k-medoids refinement passes
+	 * @param improvementPasses the maximum number of 2-opt passes used to improve the order within a cluster
+	 *        and the stitched path
+	 * @param threads the number of clusters solved at once
+	 */
+	public InitOpCluster(int clusterSize, int medoidIterations, int improvementPasses, int threads) {
+		if (clusterSize < 2) {
+			throw new IllegalArgumentException("Clusters must hold at least two words.");
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed to solve the clusters.");
+		}
+		this.clusterSize = clusterSize;
+		this.medoidIterations = medoidIterations;
+		this.improvementPasses = improvementPasses;
+		this.threads = threads;
+	}
+
+	@Override
+	public Solution run(Lock lock, Random random) {
+		ArrayList<Integer> words = new ArrayList<>();
+		for (int i = 0; i < lock.getWordCount(); i++) {
+			words.add(i);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		ArrayList<Integer> deferred = new ArrayList<>();
+		ArrayList<Integer> placed;
+		try {
+			placed = decompose(lock, random, executor, words, -1, deferred);
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException("Failed to solve cluster", e);
+		} finally {
+			executor.shutdown();
+		}
+
+		// Stitch the outliers back in where each one adds the least to the score
+		Solution retVal = new Solution(lock);
+		for (int word: placed) {
+			retVal.addWord(word);
+		}
+		for (int word: deferred) {
+			retVal.insertWord(retVal.getCheapestInsertion(word), word);
+		}
+		// Repair the edges between clusters and around the inserted outliers
+		retVal.improveByNearestReversals(improvementPasses);
+		return retVal;
+	}
+
+	/**
+	 * Cluster the words, order the clusters, and solve each cluster in parallel
+	 * @param words the words to place
+	 * @param anchor the word visited before these words, or -1 for the starting point
+	 * @param deferred collects the words that are far from the rest of their cluster
+	 * @return the stitched order of the words that were not deferred
+	 */
+	private ArrayList<Integer> decompose(Lock lock, Random random, ExecutorService executor, ArrayList<Integer> words,
+			int anchor, ArrayList<Integer> deferred) throws InterruptedException, ExecutionException {
+		int k = Math.max(1, (words.size() + clusterSize - 1) / clusterSize);
+		int[] medoids = chooseInitialMedoids(random, words, k);
+		ArrayList<ArrayList<Integer>> clusters = assign(lock, words, medoids);
+		for (int iter = 0; iter < medoidIterations; iter++) {
+			boolean changed = false;
+			for (int c = 0; c < k; c++) {
+				int medoid = findMedoid(lock, clusters.get(c));
+				if (medoid != medoids[c]) {
+					medoids[c] = medoid;
+					changed = true;
+				}
+			}
+			if (!changed) break;
+			clusters = assign(lock, words, medoids);
+		}
+
+		// Order the clusters by walking to the closest unvisited medoid
+		int[] clusterOrder = new int[k];
+		boolean[] visited = new boolean[k];
+		int lastWord = anchor;
+		for (int i = 0; i < k; i++) {
+			int best = -1;
+			for (int c = 0; c < k; c++) {
+				if (visited[c]) continue;
+				if (best == -1 || lock.distance(lastWord, medoids[c]) < lock.distance(lastWord, medoids[best])) {
+					best = c;
+				}
+			}
+			visited[best] = true;
+			clusterOrder[i] = best;
+			lastWord = medoids[best];
+		}
+
+		// Solve the order within each cluster in parallel
+		ArrayList<Future<int[]>> pieces = new ArrayList<>();
+		int wordsAfter = words.size();
+		for (int i = 0; i < k; i++) {
+			final ArrayList<Integer> cluster = clusters.get(clusterOrder[i]);
+			final int pieceAnchor = (i == 0) ? anchor : medoids[clusterOrder[i-1]];
+			wordsAfter -= cluster.size();
+			final int tailSize = wordsAfter;
+			pieces.add(executor.submit(() -> solveCluster(lock, cluster, pieceAnchor, tailSize)));
+		}
+
+		ArrayList<Integer> retVal = new ArrayList<>();
+		for (Future<int[]> future: pieces) {
+			int[] piece = future.get();
+			// Words reached by an edge much longer than usual for the cluster are left for the next level
+			long total = 0;
+			for (int i = 1; i < piece.length; i++) {
+				total += lock.distance(piece[i-1], piece[i]);
+			}
+			double limit = (k == 1) ? Double.MAX_VALUE : DEFER_FACTOR * total / Math.max(1, piece.length - 1);
+			int last = -1;
+			for (int i = 0; i < piece.length; i++) {
+				if (i > 0 && lock.distance(piece[i-1], piece[i]) > limit && last != -1) {
+					deferred.add(piece[i]);
+				}
+				else {
+					retVal.add(piece[i]);
+					last = piece[i];
+				}
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * Pick k distinct words at random to act as the first medoids
+	 */
+	private int[] chooseInitialMedoids(Random random, ArrayList<Integer> words, int k) {
+		HashSet<Integer> chosen = new HashSet<>();
+		int[] medoids = new int[k];
+		for (int c = 0; c < k; c++) {
+			int word = words.get(random.nextInt(words.size()));
+			while (chosen.contains(word)) {
+				word = words.get(random.nextInt(words.size()));
+			}
+			chosen.add(word);
+			medoids[c] = word;
+		}
+		return medoids;
+	}
+
+	/**
+	 * Assign each word to the closest medoid
+	 * @return clusters.get(c) holds the words assigned to medoids[c]
+	 */
+	private ArrayList<ArrayList<Integer>> assign(Lock lock, ArrayList<Integer> words, int[] medoids) {
+		ArrayList<ArrayList<Integer>> clusters = new ArrayList<>();
+		for (int c = 0; c < medoids.length; c++) {
+			clusters.add(new ArrayList<>());
+		}
+		for (int i: words) {
+			int best = 0;
+			int bestDist = Integer.MAX_VALUE;
+			for (int c = 0; c < medoids.length; c++) {
+				int dist = (i == medoids[c]) ? -1 : lock.distance(i, medoids[c]);
+				if (dist < bestDist) {
+					bestDist = dist;
+					best = c;
+				}
+			}
+			clusters.get(best).add(i);
+		}
+		return clusters;
+	}
+
+	/**
+	 * @return the word in the cluster with the smallest total distance to the other words of the cluster
+	 */
+	private int findMedoid(Lock lock, ArrayList<Integer> cluster) {
+		int best = cluster.get(0);
+		long bestSum = Long.MAX_VALUE;
+		for (int a: cluster) {
+			long sum = 0;
+			for (int b: cluster) {
+				sum += lock.distance(a, b);
+				if (sum >= bestSum) break;
+			}
+			if (sum < bestSum) {
+				bestSum = sum;
+				best = a;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Order the words of a cluster using the next closest heuristic from the anchor, followed
+	 * by 2-opt reversals that reduce the latency of the piece
+	 * @param cluster the words in the cluster
+	 * @param anchor the word visited before the cluster, or -1 for the starting point
+	 * @param tailSize the number of words that will be visited after this cluster
+	 * @return the words of the cluster in the order they should be visited
+	 */
+	private int[] solveCluster(Lock lock, ArrayList<Integer> cluster, int anchor, int tailSize) {
+		int m = cluster.size();
+		int[] order = new int[m];
+		boolean[] used = new boolean[m];
+		int lastWord = anchor;
+		for (int i = 0; i < m; i++) {
+			int best = -1;
+			int bestDist = Integer.MAX_VALUE;
+			for (int j = 0; j < m; j++) {
+				if (used[j]) continue;
+				int dist = lock.distance(lastWord, cluster.get(j));
+				if (dist < bestDist) {
+					bestDist = dist;
+					best = j;
+				}
+			}
+			used[best] = true;
+			order[i] = cluster.get(best);
+			lastWord = order[i];
+		}
+		improve(lock, order, anchor, tailSize);
+		return order;
+	}
+
+	/**
+	 * Apply 2-opt reversals that reduce the latency of a piece of the path
+	 * @param order the words of the piece, which are reordered in place
+	 * @param anchor the word visited before the piece, or -1 for the starting point
+	 * @param tailSize the number of words that will be visited after the piece
+	 */
+	private void improve(Lock lock, int[] order, int anchor, int tailSize) {
+		int m = order.length;
+		// The weight of the edge into position i is the number of words tried from then on
+		long[] cost = new long[m];
+		for (int pass = 0; pass < improvementPasses; pass++) {
+			boolean improved = false;
+			for (int i = 0; i < m; i++) {
+				cost[i] = 1 + lock.distance(i == 0 ? anchor : order[i-1], order[i]);
+			}
+			for (int i = 0; i < m - 1; i++) {
+				int before = (i == 0) ? anchor : order[i-1];
+				// Running sums of the internal edge costs, c[k] and k * c[k], for k in (i..j]
+				long sum = 0;
+				long weightedSum = 0;
+				for (int j = i + 1; j < m; j++) {
+					sum += cost[j];
+					weightedSum += (long) j * cost[j];
+					long delta = (long) (m - i + tailSize) * (lock.distance(before, order[j]) - lock.distance(before, order[i]));
+					// Reversing (i..j] moves the edge into k to position i+j+1-k
+					delta += 2 * weightedSum - (long) (i + j + 1) * sum;
+					if (j + 1 < m) {
+						delta += (long) (m - j - 1 + tailSize) * (lock.distance(order[i], order[j+1]) - lock.distance(order[j], order[j+1]));
+					}
+					if (delta < 0) {
+						for (int a = i, b = j; a < b; a++, b--) {
+							int tmp = order[a];
+							order[a] = order[b];
+							order[b] = tmp;
+						}
+						for (int c = i; c <= j + 1 && c < m; c++) {
+							cost[c] = 1 + lock.distance(c == 0 ? anchor : order[c-1], order[c]);
+						}
+						sum = 0;
+						weightedSum = 0;
+						for (int c = i + 1; c <= j; c++) {
+							sum += cost[c];
+							weightedSum += (long) c * cost[c];
+						}
+						improved = true;
+					}
+				}
+			}
+			if (!improved) break;
+		}
+	}
+}
@@ -1,5 +1,6 @@
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Random;
 
 /** 
  * Choose a path by selecting the next closest word.  Break ties randomly
@@ -8,7 +9,7 @@ import java.util.HashSet;
 public class InitOpNextClosest extends InitializationOperator {
 	
 	@Override
-	public Solution run(Lock lock) {
+	public Solution run(Lock lock, Random random) {
 		HashSet<Integer> used = new HashSet<>();
 		Solution retVal = new Solution(lock);
 		
@@ -34,7 +35,7 @@ public class InitOpNextClosest extends InitializationOperator {
 				System.err.print(" " + lock.getWord(i));
 			}
 			System.err.println(" dist: " + bestWeightedDistance + " candidates: " + bestNextWords.size());*/
-			lastWord = bestNextWords.get(Optimizer.prng.nextInt(bestNextWords.size()));
+			lastWord = bestNextWords.get(random.nextInt(bestNextWords.size()));
 			retVal.addWord(lastWord);
 			used.add(lastWord);
 		}
@@ -0,0 +1,117 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Build a path tier by tier using the word frequencies.  The most frequent words are ordered
+ * with the next closest heuristic, then each following tier is added with a cheapest insertion
+ * pass on the latency score, and the words of the tier are relocated once more before the next tier.
+ * After every tier the placed words are improved by 2-opt reversals that join words to their nearest words.
+ */
+public class InitOpProgressive extends InitializationOperator {
+	private int firstTier; // The number of words in the first tier
+	private double growth; // The size of each tier relative to the number of words already placed
+	private int improvementPasses; // The maximum number of 2-opt passes over the placed words after each tier
+	private boolean reportProgress; // Whether to print the score of a completed path after every tier
+
+	public InitOpProgressive() {
+		this(500, 1.0, 20, false);
+	}
+
+	/**
+	 * @param firstTier the number of most frequent words that are solved first
+	 * @param growth each new tier holds growth * [words placed so far] words
+	 * @param improvementPasses the maximum number of 2-opt passes over the placed words after each tier
+	 * @param reportProgress whether to print the score of a full path after every tier
+	 */
+	public InitOpProgressive(int firstTier, double growth, int improvementPasses, boolean reportProgress) {
+		if (firstTier < 1 || growth <= 0.0) {
+			throw new IllegalArgumentException("Tiers must hold at least one word.");
+		}
+		this.firstTier = firstTier;
+		this.growth = growth;
+		this.improvementPasses = improvementPasses;
+		this.reportProgress = reportProgress;
+	}
+
+	@Override
+	public Solution run(Lock lock, Random random) {
+		int wordCount = lock.getWordCount();
+		ArrayList<Integer> byFrequency = new ArrayList<>();
+		for (int i = 0; i < wordCount; i++) {
+			byFrequency.add(i);
+		}
+		Collections.sort(byFrequency, (a, b) -> Long.compare(lock.getCount(b), lock.getCount(a)));
+
+		Solution path = new Solution(lock);
+		boolean[] placed = new boolean[wordCount];
+
+		// Order the first tier using the next closest heuristic
+		int size = Math.min(firstTier, wordCount);
+		int lastWord = -1;
+		for (int i = 0; i < size; i++) {
+			ArrayList<Integer> bestNextWords = new ArrayList<>();
+			int bestDistance = Integer.MAX_VALUE;
+			for (int j = 0; j < size; j++) {
+				int word = byFrequency.get(j);
+				if (placed[word]) continue;
+				int dist = lock.distance(lastWord, word);
+				if (dist < bestDistance) {
+					bestDistance = dist;
+					bestNextWords.clear();
+				}
+				if (dist == bestDistance) {
+					bestNextWords.add(word);
+				}
+			}
+			lastWord = bestNextWords.get(random.nextInt(bestNextWords.size()));
+			path.addWord(lastWord);
+			placed[lastWord] = true;
+		}
+		// Improve the placed words before the next tier is inserted around them
+		path.improveByNearestReversals(improvementPasses);
+		int tier = 1;
+		if (reportProgress) report(lock, tier, path, placed);
+
+		while (size < wordCount) {
+			int tierEnd = Math.min(wordCount, size + Math.max(1, (int) (growth * size)));
+			int tierStart = size;
+			for (int j = tierStart; j < tierEnd; j++) {
+				int word = byFrequency.get(j);
+				path.insertWord(path.getCheapestInsertion(word), word);
+				placed[word] = true;
+				size++;
+			}
+			// Re-optimise by moving each word of the tier to its cheapest position
+			for (int j = tierStart; j < tierEnd; j++) {
+				int word = byFrequency.get(j);
+				int position = path.getPosition(word);
+				double before = path.getScore();
+				path.removeWord(position);
+				int target = path.getCheapestInsertion(word);
+				if (path.getScore() + path.getInsertionDelta(word, target) >= before) target = position;
+				path.insertWord(target, word);
+			}
+			// Re-optimise the whole placed path, whose new words open up reversals between the old ones
+			path.improveByNearestReversals(improvementPasses);
+			tier++;
+			if (reportProgress) report(lock, tier, path, placed);
+		}
+		return path;
+	}
+
+	/**
+	 * Print the score of the full path obtained by inserting the words that are not placed yet at their
+	 * cheapest positions, which is what the path of this tier is worth if the search stopped here
+	 */
+	private void report(Lock lock, int tier, Solution path, boolean[] placed) {
+		Solution full = new Solution(lock);
+		for (int i = 0; i < path.getLength(); i++) {
+			full.addWord(path.getIthWord(i));
+		}
+		for (int j = 0; j < lock.getWordCount(); j++) {
+			if (!placed[j]) full.insertWord(full.getCheapestInsertion(j), j);
+		}
+		System.out.println("Tier " + tier + ": " + path.getLength() + " words placed, full path score: " + full.getScore());
+	}
+}
@@ -1,5 +1,6 @@
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Random;
 
 /**
  * Create an initial path at random
@@ -8,14 +9,14 @@ import java.util.Collections;
 public class InitOpRandom extends InitializationOperator {
 	
 	@Override
-	public Solution run(Lock lock) {
+	public Solution run(Lock lock, Random random) {
 		Solution retVal = new Solution(lock);
 		
 		ArrayList<Integer> ordering = new ArrayList<>();
 		for (int i = 0; i < lock.getWordCount(); i++) {
 			ordering.add(i);
 		}
-		Collections.shuffle(ordering);
+		Collections.shuffle(ordering, random);
 
 		for (int i: ordering) {
 			retVal.addWord(i);
@@ -0,0 +1,83 @@
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Start from the path saved by an earlier run on the same lock.  The first call returns the saved path
+ * and later calls return copies perturbed by a few short reversals.  If no path is saved, the fallback
+ * operator is used instead.
+ */
+public class InitOpWarmStart extends InitializationOperator {
+	private InitializationOperator fallback; // Used when no path is saved for the lock
+	private int perturbations; // The number of reversals applied to each copy
+	private int maxSegment; // The maximum length of a reversed segment
+	private Lock loadedLock = null; // The lock the saved path was loaded for
+	private int[] saved = null; // The saved path, or null if there is none
+	private boolean returnedSaved = false; // Whether the unperturbed saved path has been returned
+
+	/**
+	 * @param fallback the operator used when no path is saved for the lock
+	 * @param perturbations the number of reversals applied to each copy of the saved path
+	 * @param maxSegment the maximum length of a reversed segment
+	 */
+	public InitOpWarmStart(InitializationOperator fallback, int perturbations, int maxSegment) {
+		this.fallback = fallback;
+		this.perturbations = perturbations;
+		this.maxSegment = maxSegment;
+	}
+
+	public InitOpWarmStart() {
+		this(new InitOpNextClosest(), 5, 20);
+	}
+
+	@Override
+	public Solution run(Lock lock, Random random) {
+		int[] path;
+		boolean perturb;
+		synchronized (this) {
+			if (loadedLock != lock) {
+				loadedLock = lock;
+				saved = load(lock);
+				returnedSaved = false;
+			}
+			path = saved;
+			perturb = returnedSaved;
+			returnedSaved = true;
+		}
+		if (path == null) return fallback.run(lock, random);
+
+		path = path.clone();
+		if (perturb && path.length > 1) {
+			for (int p = 0; p < perturbations; p++) {
+				int length = 2 + random.nextInt(Math.min(maxSegment, path.length) - 1);
+				int start = random.nextInt(path.length - length + 1);
+				for (int i = start, j = start + length - 1; i < j; i++, j--) {
+					int word = path[i];
+					path[i] = path[j];
+					path[j] = word;
+				}
+			}
+		}
+		Solution retVal = new Solution(lock);
+		for (int word: path) {
+			retVal.addWord(word);
+		}
+		return retVal;
+	}
+
+	private int[] load(Lock lock) {
+		Solution solution;
+		try {
+			solution = SolutionStore.load(lock);
+		} catch (IOException e) {
+			System.out.println("Ignoring saved path: " + e.getMessage());
+			return null;
+		}
+		if (solution == null) return null;
+		System.out.println("Warm start from saved path, score: " + solution.getScore());
+		int[] path = new int[solution.getLength()];
+		for (int i = 0; i < path.length; i++) {
+			path[i] = solution.getIthWord(i);
+		}
+		return path;
+	}
+}
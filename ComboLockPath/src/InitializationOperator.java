@@ -1,9 +1,22 @@
+import java.util.Random;
+
 /** 
  * A base class for an operator that creates a lock configuration
  * for the initial population of the GA
  */
 public abstract class InitializationOperator {
-	public abstract Solution run(Lock lock);
+	/**
+	 * Create a path
+	 * @param random the source of randomness of the search that runs the operator
+	 */
+	public abstract Solution run(Lock lock, Random random);
+
+	/**
+	 * Create a path using the shared generator in Optimizer
+	 */
+	public Solution run(Lock lock) {
+		return run(lock, Optimizer.prng);
+	}
 
 	public String getName() {
 		return getClass().getSimpleName();
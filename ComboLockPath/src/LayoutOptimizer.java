@@ -0,0 +1,188 @@
+/**
+ * The class with the main method to search for wheel layouts that make many words cheaply.
+ *
+ * Starting from the layout read from standard input, in the same format as Optimizer, each round changes
+ * the letters of a layout on the Pareto front by replacing a letter with one from the alphabet or swapping
+ * two letters on a wheel.  The number of letters on each wheel never changes.  Every candidate is built into
+ * a Lock, with its word filter and lower bound fitness, in parallel, and each layout is only ever built once.
+ * The layouts that are not beaten on both word count and fitness are reported at the end.
+ */
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+public class LayoutOptimizer {
+	/*************************************************
+	 *  PARAMETERS TO CONTROL THE LAYOUT SEARCH
+	 **************************************************/
+	static int SEED = 4; // A seed for the random number generator to produce consistent results
+	static String ALPHABET = "abcdefghijklmnopqrstuvwxyz "; // The letters that may be put on a wheel; a space
+	                                                        // lets shorter words be made
+	static int ROUNDS = 50; // The number of rounds of the search
+	static int CANDIDATES = 2 * Runtime.getRuntime().availableProcessors(); // The number of layouts built each round
+	static int MAX_MOVES = 3; // The maximum number of changes that turn a layout into a candidate
+	static int MIN_DISTANCE_FROM_START_WORD = 0; // The minimum distance from the starting word for a word to
+	                                             // be considered as a combination
+
+	private Random prng;
+	private Dictionary dictionary; // The word list shared by every lock that is built
+	private ConcurrentHashMap<String, FutureTask<Design>> designs = new ConcurrentHashMap<>(); // Every layout built
+	private ArrayList<Design> front = new ArrayList<>(); // The layouts that no other layout beats
+
+	/**
+	 * A layout and how good it is
+	 */
+	private static class Design {
+		String[] wheels; // The letters on each wheel
+		int wordCount; // The number of words the layout makes
+		double fitness; // The lower bound fitness of the lock, or infinity if it makes too few words
+
+		/**
+		 * @return true iff this design is at least as good as the other on both objectives and better on one
+		 */
+		boolean dominates(Design other) {
+			return wordCount >= other.wordCount && fitness <= other.fitness
+					&& (wordCount > other.wordCount || fitness < other.fitness);
+		}
+
+		@Override
+		public String toString() {
+			return "words: " + wordCount + " fitness: " + fitness + " wheels: " + String.join("|", wheels);
+		}
+	}
+
+	public LayoutOptimizer(Dictionary dictionary, Random prng) {
+		this.dictionary = dictionary;
+		this.prng = prng;
+	}
+
+	/**
+	 * The driver method for the layout search
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		// Read the starting wheel configuration
+		Scanner sc = new Scanner(System.in);
+		int wheelCount = Integer.valueOf(sc.nextLine());
+		String[] wheels = new String[wheelCount];
+		for (int i = 0; i < wheelCount; i++) {
+			wheels[i] = sc.nextLine().toLowerCase();
+		}
+		for (String wheel: wheels) {
+			for (char c: wheel.toCharArray()) {
+				if (ALPHABET.indexOf(c) < 0) throw new IllegalArgumentException("The letter '" + c + "' is not in the alphabet.");
+			}
+		}
+
+		LayoutOptimizer optimizer = new LayoutOptimizer(Dictionary.load(), new Random(SEED));
+		List<Design> front = optimizer.search(wheels, ROUNDS, CANDIDATES);
+		System.out.println("Pareto front of word count against lower bound fitness:");
+		for (Design design: front) {
+			System.out.println(design);
+		}
+	}
+
+	/**
+	 * Search for good layouts
+	 * @param start the starting layout
+	 * @param rounds the number of rounds
+	 * @param candidates the number of layouts tried each round
+	 * @return the layouts on the Pareto front, by increasing word count
+	 */
+	List<Design> search(String[] start, int rounds, int candidates) {
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			addToFront(evaluate(start));
+			for (int r = 0; r < rounds; r++) {
+				ArrayList<Future<Design>> futures = new ArrayList<>();
+				for (int c = 0; c < candidates; c++) {
+					String[] wheels = mutate(front.get(prng.nextInt(front.size())).wheels);
+					futures.add(executor.submit(() -> evaluate(wheels)));
+				}
+				int added = 0;
+				for (Future<Design> future: futures) {
+					if (addToFront(future.get())) added++;
+				}
+				System.out.println("Round " + (r + 1) + ": " + added + " layouts joined the front, front size: "
+						+ front.size() + ", layouts built: " + designs.size());
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException("Layout search failed", e);
+		} finally {
+			executor.shutdown();
+		}
+		front.sort(Comparator.comparingInt(d -> d.wordCount));
+		return front;
+	}
+
+	/**
+	 * Build the lock for a layout, or wait for the design if another thread has already built it
+	 */
+	private Design evaluate(String[] wheels) throws InterruptedException, ExecutionException {
+		String key = String.join("|", wheels);
+		FutureTask<Design> task = new FutureTask<>(() -> {
+			Lock lock = new Lock(wheels, MIN_DISTANCE_FROM_START_WORD, dictionary);
+			Design design = new Design();
+			design.wheels = wheels;
+			design.wordCount = lock.getWordCount();
+			// The lower bound needs two neighbours for every word
+			design.fitness = (design.wordCount < 3) ? Double.POSITIVE_INFINITY : lock.getFitness();
+			return design;
+		});
+		FutureTask<Design> existing = designs.putIfAbsent(key, task);
+		if (existing != null) return existing.get();
+		task.run();
+		return task.get();
+	}
+
+	/**
+	 * Add a design to the front unless a design on the front beats it, removing the designs it beats
+	 * @return true iff the design was added
+	 */
+	private boolean addToFront(Design design) {
+		if (design.fitness == Double.POSITIVE_INFINITY) return false;
+		for (Design member: front) {
+			if (member.dominates(design)) return false;
+			if (member.wordCount == design.wordCount && member.fitness == design.fitness) return false;
+		}
+		front.removeIf(member -> design.dominates(member));
+		front.add(design);
+		return true;
+	}
+
+	/**
+	 * @return a copy of the layout with between one and MAX_MOVES random changes
+	 */
+	private String[] mutate(String[] wheels) {
+		String[] result = wheels.clone();
+		int moves = 1 + prng.nextInt(MAX_MOVES);
+		for (int m = 0; m < moves; m++) {
+			int w = prng.nextInt(result.length);
+			char[] letters = result[w].toCharArray();
+			if (prng.nextBoolean() || letters.length < 2) {
+				// Replace a letter with one that is not on the wheel
+				char c = ALPHABET.charAt(prng.nextInt(ALPHABET.length()));
+				if (result[w].indexOf(c) >= 0) continue;
+				letters[prng.nextInt(letters.length)] = c;
+			}
+			else {
+				// Swap two letters, which changes the distances between words and the starting word
+				int i = prng.nextInt(letters.length);
+				int j = prng.nextInt(letters.length);
+				char c = letters[i];
+				letters[i] = letters[j];
+				letters[j] = c;
+			}
+			result[w] = new String(letters);
+		}
+		return result;
+	}
+}
@@ -1,9 +1,10 @@
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Scanner;
 
 /**
  * A lock configuration
@@ -13,16 +14,33 @@ public class Lock {
 	private String initialWord; // The initial word shown on the lock
 	private ArrayList<String> words = new ArrayList<>(); // The list of words
 	private HashSet<String> wordSet = new HashSet<>(); // The set of words that can be made
+	private ArrayList<Long> counts = new ArrayList<>(); // The frequency count of each word in the word list
 	private int [][] distances; // Stored distances between locks and words to speed up computation
 	private Double fitness = null; // The fitness
+	private Long fingerprint = null; // A digest of the wheels and words, which identifies saved paths
+	private static final int NEAREST_COUNT = 10; // The number of closest words kept for each word
+	private volatile int[][] nearest; // nearest[i+1] holds the closest words to word i, and nearest[0] those
+	                                  // closest to the starting point
 	
 	/**
-	 * Initialize a lock
+	 * Initialize a lock from the standard word list
 	 * 
 	 * @param wheels - the letters on the lock wheels
 	 * @param minDistanceFromStart - the minimum distance from the initial word for a combination to be considered
 	 */
 	public Lock(String[] wheels, int minDistanceFromStart) {
+		this(wheels, minDistanceFromStart, Dictionary.load());
+		System.out.println("Total words: " + words.size());
+	}
+
+	/**
+	 * Initialize a lock from a word list that has already been read
+	 * 
+	 * @param wheels - the letters on the lock wheels
+	 * @param minDistanceFromStart - the minimum distance from the initial word for a combination to be considered
+	 * @param dictionary - the words that the lock may make
+	 */
+	public Lock(String[] wheels, int minDistanceFromStart, Dictionary dictionary) {
 		this.wheels = wheels; 
 
 		initialWord = "";
@@ -30,15 +48,8 @@ public class Lock {
 			initialWord += wheels[i].charAt(0);
 		}
 
-		Scanner sc;
-		try {
-			sc = new Scanner(new File("words_with_frequency.txt"));
-		} catch (FileNotFoundException e) {
-			throw new RuntimeException("Missing word list");
-		}
-		while (sc.hasNext()) {
-			String word = sc.next().toLowerCase();
-			Long count = sc.nextLong();
+		for (int w = 0; w < dictionary.getSize(); w++) {
+			String word = dictionary.getWord(w);
 			
 			boolean ok = true;
 			if (word.length() > wheels.length) { 
@@ -55,12 +66,11 @@ public class Lock {
 				if (!wordSet.contains(word)) {
 					wordSet.add(word);
 					words.add(word);
+					counts.add(dictionary.getCount(w));
 				}
 			}
 		}
-		System.out.println("Total words: " + words.size());
 		distances = new int[words.size()][words.size()];
-		sc.close();
 	}
 
 	/**
@@ -72,6 +82,15 @@ public class Lock {
 		return words.get(i);
 	}
 
+	/**
+	 * Get the frequency count of the ith word, as read from the word list
+	 * @param i
+	 * @return
+	 */
+	long getCount(int i) {
+		return counts.get(i);
+	}
+
 	/**
 	 * 
 	 * @return the word that is shown when the lock is in the default position
@@ -88,6 +107,31 @@ public class Lock {
 		return words.size();
 	}
 
+	/**
+	 * @return a digest of the wheels and of the words in index order.  Two locks with the same fingerprint
+	 *         have the same word indices and distances, so a path saved from one is valid for the other.
+	 */
+	synchronized long getFingerprint() {
+		if (fingerprint == null) {
+			MessageDigest digest;
+			try {
+				digest = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				throw new RuntimeException("Missing SHA-256", e);
+			}
+			for (String wheel: wheels) {
+				digest.update(wheel.toLowerCase().getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) '|');
+			}
+			for (String word: words) {
+				digest.update(word.getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) '\n');
+			}
+			fingerprint = ByteBuffer.wrap(digest.digest()).getLong();
+		}
+		return fingerprint;
+	}
+
 	/**
 	 * Get the lower bound fitness of the lock configuration
 	 * @return a lower bound fitness, which is the sum of the total running distance by looking
@@ -137,6 +181,51 @@ public class Lock {
 		return fitness;
 	}
 	
+	/**
+	 * Get the words closest to a word
+	 * @param index the position of the word in the list. A value of -1 indicates the starting point.
+	 * @return up to NEAREST_COUNT other words, closest first
+	 */
+	int[] getNearest(int index) {
+		if (nearest == null) {
+			synchronized (this) {
+				if (nearest == null) {
+					int[][] lists = new int[words.size() + 1][];
+					for (int i = -1; i < words.size(); i++) {
+						lists[i + 1] = findNearest(i);
+					}
+					nearest = lists;
+				}
+			}
+		}
+		return nearest[index + 1];
+	}
+
+	/**
+	 * @return the NEAREST_COUNT words closest to the word at index, closest first
+	 */
+	private int[] findNearest(int index) {
+		int count = Math.min(NEAREST_COUNT, index == -1 ? words.size() : words.size() - 1);
+		int[] closest = new int[count];
+		int[] closestDist = new int[count];
+		int found = 0;
+		for (int j = 0; j < words.size(); j++) {
+			if (j == index) continue;
+			int dist = distance(index, j);
+			if (found == count && dist >= closestDist[count - 1]) continue;
+			// Insert j into the sorted list, dropping the farthest word if the list is full
+			int k = (found == count) ? count - 1 : found++;
+			while (k > 0 && closestDist[k - 1] > dist) {
+				closest[k] = closest[k - 1];
+				closestDist[k] = closestDist[k - 1];
+				k--;
+			}
+			closest[k] = j;
+			closestDist[k] = dist;
+		}
+		return closest;
+	}
+
 	/**
 	 * The distance between two words
 	 * @param index1 the position of the first word in the list. A value of -1 indicates the starting point.
@@ -0,0 +1,71 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A least recently used cache of built locks, keyed by their wheel configuration.
+ * A lock is built once, including its distances and lower bound, and then shared read-only
+ * by every job on the same configuration.
+ */
+public class LockCache {
+	private int capacity; // The maximum number of locks kept
+	private LinkedHashMap<String, FutureTask<Lock>> locks; // The locks in least recently used order
+
+	/**
+	 * @param capacity the maximum number of locks kept in the cache
+	 */
+	public LockCache(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("The cache must hold at least one lock.");
+		}
+		this.capacity = capacity;
+		locks = new LinkedHashMap<String, FutureTask<Lock>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, FutureTask<Lock>> eldest) {
+				return size() > LockCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Get the lock for a configuration, building it if it is not cached.  Concurrent requests for the
+	 * same configuration wait for a single build.
+	 * @param wheels the letters on the lock wheels
+	 * @param minDistanceFromStart the minimum distance from the initial word for a combination to be considered
+	 * @return the shared lock
+	 */
+	public Lock get(String[] wheels, int minDistanceFromStart) {
+		String key = minDistanceFromStart + ":" + String.join("|", wheels);
+		FutureTask<Lock> task;
+		boolean build = false;
+		synchronized (this) {
+			task = locks.get(key);
+			if (task == null) {
+				task = new FutureTask<>(() -> {
+					Lock lock = new Lock(wheels, minDistanceFromStart);
+					lock.getFitness(); // Compute the lower bound, and many distances, before the lock is shared
+					return lock;
+				});
+				locks.put(key, task);
+				build = true;
+			}
+		}
+		if (build) task.run();
+		try {
+			return task.get();
+		} catch (InterruptedException | ExecutionException e) {
+			synchronized (this) {
+				if (locks.get(key) == task) locks.remove(key);
+			}
+			throw new RuntimeException("Failed to build lock", e);
+		}
+	}
+
+	/**
+	 * @return the number of locks in the cache
+	 */
+	public synchronized int getSize() {
+		return locks.size();
+	}
+}
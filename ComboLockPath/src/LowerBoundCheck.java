@@ -0,0 +1,83 @@
+/**
+ * The class with the main method to check the lower bound engine against the true optimum of small locks.
+ *
+ * Random wheels are drawn until they make a lock with only a few words.  The best path through such a lock
+ * is found by trying every order, and the lower bound, after its full number of subgradient steps, must never
+ * be above the score of that path.
+ */
+import java.util.Random;
+
+public class LowerBoundCheck {
+	/*************************************************
+	 *  PARAMETERS TO CONTROL THE CHECK
+	 **************************************************/
+	static int SEED = 4; // A seed for the random number generator that draws the wheels
+	static int LOCKS = 60; // The number of small locks that are checked
+	static int WHEELS = 3; // The number of wheels of each lock
+	static int LETTERS = 5; // The number of letters on each wheel
+	static int MIN_WORDS = 3; // The smallest lock that is checked
+	static int MAX_WORDS = 9; // The largest lock that is checked; every order of its words is tried
+	static int ITERATIONS = 200; // The number of subgradient steps of the lower bound engine
+	static String ALPHABET = "abcdefghijklmnopqrstuvwxyz"; // The letters that are put on the wheels
+
+	/**
+	 * The driver method for the check
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		Random random = new Random(SEED);
+		Dictionary dictionary = Dictionary.load();
+		int failures = 0;
+		for (int checked = 0; checked < LOCKS; ) {
+			String[] wheels = new String[WHEELS];
+			for (int w = 0; w < WHEELS; w++) {
+				StringBuilder wheel = new StringBuilder();
+				while (wheel.length() < LETTERS) {
+					char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+					if (wheel.indexOf(String.valueOf(c)) < 0) wheel.append(c);
+				}
+				wheels[w] = wheel.toString();
+			}
+			Lock lock = new Lock(wheels, 0, dictionary);
+			int n = lock.getWordCount();
+			if (n < MIN_WORDS || n > MAX_WORDS) continue;
+			checked++;
+
+			LowerBoundEngine engine = new LowerBoundEngine(lock, ITERATIONS, 0);
+			engine.run();
+			double optimum = optimum(lock, new int[n], new boolean[n], 0, -1, 0, 0, Double.MAX_VALUE);
+			boolean valid = engine.getBound() <= optimum + 1e-6;
+			if (!valid) failures++;
+			System.out.println((valid ? "ok   " : "FAIL ") + String.join("|", wheels) + " words: " + n
+					+ " optimum: " + optimum + " bound: " + engine.getBound());
+		}
+		System.out.println(failures + " of " + LOCKS + " bounds were above the optimum");
+		if (failures > 0) System.exit(1);
+	}
+
+	/**
+	 * Try every order of the words that are not placed yet
+	 * @param path the words placed so far
+	 * @param placed placed[w] is true iff word w is in the path
+	 * @param size the number of words placed
+	 * @param lastWord the last word placed, or -1 for the starting point
+	 * @param distSoFar the number of steps taken to try the last word placed
+	 * @param score the score of the words placed
+	 * @param best the best score of a full path found so far
+	 * @return the best score of a full path that starts with the words placed, or best if it is not better
+	 */
+	private static double optimum(Lock lock, int[] path, boolean[] placed, int size, int lastWord, long distSoFar,
+			long score, double best) {
+		if (score >= best) return best;
+		if (size == path.length) return score;
+		for (int w = 0; w < path.length; w++) {
+			if (placed[w]) continue;
+			placed[w] = true;
+			path[size] = w;
+			long dist = distSoFar + 1 + lock.distance(lastWord, w);
+			best = optimum(lock, path, placed, size + 1, w, dist, score + dist, best);
+			placed[w] = false;
+		}
+		return best;
+	}
+}
@@ -0,0 +1,160 @@
+import java.util.Arrays;
+
+/**
+ * Computes a lower bound on the score of any path through the words of a lock, meant to run in a
+ * background thread while a search runs.
+ *
+ * The score of a path is n(n+1)/2 plus the sum over the words of w * (distance to the word), where w is the
+ * number of words from that word to the end of the path.  Charging half of each edge to each of its ends, a
+ * word with weight w pays at least (w-1)/2 times the sum of its in and out edges plus half its in edge, which
+ * is bounded by the distances to its two nearest neighbours.  Giving the largest weights to the words with the
+ * closest neighbours then bounds the score from below.  Like the bound of Held and Karp for tours, the bound is
+ * tightened with Lagrangian penalties: each edge costs d(u,v) + p[u] + p[v], which adds (2w-1) * p[v] to the
+ * score for each word, and the penalties are improved by subgradient steps so that words that are the nearest
+ * neighbour of too many others become more expensive.  The other half of the first edge, which has weight n, is
+ * charged to the starting point at the cheapest penalised distance from it, since penalties may be negative.
+ */
+public class LowerBoundEngine implements Runnable {
+	private Lock lock;
+	private int iterations; // The maximum number of subgradient steps
+	private int verbosity; // How much output the engine produces; a line per step above 0
+	private volatile double bound; // The best lower bound found so far
+	private volatile double upperBound = Double.MAX_VALUE; // The best known score, used to size the steps
+	private volatile boolean stopped = false;
+
+	/**
+	 * @param lock the lock whose paths are bounded
+	 * @param iterations the maximum number of subgradient steps
+	 * @param verbosity how much output the engine produces, with the same levels as Optimizer.VERBOSITY
+	 */
+	public LowerBoundEngine(Lock lock, int iterations, int verbosity) {
+		this.lock = lock;
+		this.iterations = iterations;
+		this.verbosity = verbosity;
+		int n = lock.getWordCount();
+		bound = n * (n + 1) / 2.0;
+	}
+
+	/**
+	 * Start the engine in a background thread
+	 */
+	public void start() {
+		Thread thread = new Thread(this, "LowerBoundEngine");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Ask the engine to finish after the current step
+	 */
+	public void stop() {
+		stopped = true;
+	}
+
+	/**
+	 * @return the best lower bound found so far
+	 */
+	public double getBound() {
+		return bound;
+	}
+
+	/**
+	 * @param score the score of a solution
+	 * @return how far the score is above the lower bound, as a fraction of the lower bound
+	 */
+	public double getGap(double score) {
+		return (score - bound) / bound;
+	}
+
+	/**
+	 * Tell the engine the best score found by the search, which sizes its steps
+	 */
+	public void setUpperBound(double score) {
+		upperBound = Math.min(upperBound, score);
+	}
+
+	@Override
+	public void run() {
+		int n = lock.getWordCount();
+		if (n < 2) return;
+		double[] penalty = new double[n];
+		double[] nearest = new double[n]; // The penalised distance to the nearest neighbour of each word
+		double[] pair = new double[n]; // The mean penalised distance to the two nearest neighbours of each word
+		int[] first = new int[n]; // The nearest neighbour of each word, -1 for the starting point
+		int[] second = new int[n]; // The second nearest neighbour of each word
+		double[] key = new double[n];
+		double[] subgradient = new double[n];
+		Integer[] order = new Integer[n];
+
+		double lambda = 2.0;
+		int sinceImprovement = 0;
+		for (int iter = 0; iter < iterations && !stopped; iter++) {
+			for (int v = 0; v < n; v++) {
+				// The starting point is a neighbour of one word and is never penalised
+				double best1 = lock.distance(-1, v);
+				double best2 = Double.MAX_VALUE;
+				int word1 = -1;
+				int word2 = -1;
+				for (int u = 0; u < n; u++) {
+					if (u == v) continue;
+					double cost = lock.distance(u, v) + penalty[u];
+					if (cost < best1) {
+						best2 = best1;
+						word2 = word1;
+						best1 = cost;
+						word1 = u;
+					}
+					else if (cost < best2) {
+						best2 = cost;
+						word2 = u;
+					}
+				}
+				nearest[v] = best1 + penalty[v];
+				pair[v] = (best1 + best2) / 2.0 + penalty[v];
+				first[v] = word1;
+				second[v] = word2;
+				key[v] = pair[v] - 2.0 * penalty[v];
+			}
+
+			// The word whose cost rises least with its weight gets the largest weight
+			for (int v = 0; v < n; v++) order[v] = v;
+			Arrays.sort(order, (a, b) -> Double.compare(key[a], key[b]));
+			double value = n * (n + 1) / 2.0;
+			Arrays.fill(subgradient, 0.0);
+			// The starting point pays its half of the edge to the first word
+			int firstWord = 0;
+			for (int v = 1; v < n; v++) {
+				if (lock.distance(-1, v) + penalty[v] < lock.distance(-1, firstWord) + penalty[firstWord]) firstWord = v;
+			}
+			value += n / 2.0 * (lock.distance(-1, firstWord) + penalty[firstWord]);
+			subgradient[firstWord] += n / 2.0;
+			for (int k = 0; k < n; k++) {
+				int v = order[k];
+				double weight = n - k;
+				value += nearest[v] / 2.0 + (weight - 1) * pair[v] + (1 - 2 * weight) * penalty[v];
+				subgradient[v] += 0.5 - weight;
+				if (first[v] != -1) subgradient[first[v]] += weight / 2.0;
+				if (second[v] != -1) subgradient[second[v]] += (weight - 1) / 2.0;
+			}
+
+			if (value > bound) {
+				bound = value;
+				sinceImprovement = 0;
+			}
+			else if (++sinceImprovement >= 5) {
+				lambda /= 2.0;
+				sinceImprovement = 0;
+			}
+			if (verbosity > 0) System.out.println("Lower bound step " + (iter + 1) + ": " + value + " best " + bound);
+
+			double norm = 0.0;
+			for (int v = 0; v < n; v++) norm += subgradient[v] * subgradient[v];
+			if (norm == 0.0 || lambda < 1e-6) break;
+			double target = (upperBound == Double.MAX_VALUE) ? 1.05 * bound : upperBound;
+			double step = lambda * (target - value) / norm;
+			for (int v = 0; v < n; v++) {
+				penalty[v] += step * subgradient[v];
+			}
+		}
+	}
+}
@@ -1,5 +1,6 @@
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Random;
 
 /**
  * Choose a random sequence of words in the path and reverse it, placing it in a random spot
@@ -7,11 +8,11 @@ import java.util.HashSet;
 public class MutateReverse extends MutationOperator {
 
 	@Override
-	public Solution run(Lock lock, Solution input) {
-		int length = 1 + Optimizer.prng.nextInt(lock.getWordCount()-2);
+	public Solution run(Lock lock, Solution input, Random random) {
+		int length = 1 + random.nextInt(lock.getWordCount()-2);
 		boolean ok = false;
 		int tries = lock.getWordCount() - length;
-		int start = Optimizer.prng.nextInt(lock.getWordCount()-length);
+		int start = random.nextInt(lock.getWordCount()-length);
 		
 		ArrayList<Integer> reversedList = new ArrayList<>();
 		HashSet<Integer> words = new HashSet<>();
@@ -30,7 +31,7 @@ public class MutateReverse extends MutationOperator {
 				words.add(word);
 			}
 		}
-		int bestInsertionPoint = Optimizer.prng.nextInt(inorderList.size()+1);
+		int bestInsertionPoint = random.nextInt(inorderList.size()+1);
 		
 		Solution retVal = new Solution(lock);
 		int inOrderNdx = 0;
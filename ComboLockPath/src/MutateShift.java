@@ -1,4 +1,5 @@
 import java.util.HashSet;
+import java.util.Random;
 
 /**
  * Select a random sequence of words and move it elsewhere
@@ -6,12 +7,12 @@ import java.util.HashSet;
 public class MutateShift extends MutationOperator {
 
 	@Override
-	public Solution run(Lock lock, Solution input) {
-		int length = 1 + Optimizer.prng.nextInt(lock.getWordCount()-2);
-		int start = Optimizer.prng.nextInt(lock.getWordCount()-length);
-		int target = Optimizer.prng.nextInt(lock.getWordCount()-length);
+	public Solution run(Lock lock, Solution input, Random random) {
+		int length = 1 + random.nextInt(lock.getWordCount()-2);
+		int start = random.nextInt(lock.getWordCount()-length);
+		int target = random.nextInt(lock.getWordCount()-length);
 		while (target == start) {
-			target = Optimizer.prng.nextInt(lock.getWordCount()-length);
+			target = random.nextInt(lock.getWordCount()-length);
 		}
 		Solution retVal = new Solution(lock);
 		HashSet<Integer> words = new HashSet<>();
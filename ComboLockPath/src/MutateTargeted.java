@@ -0,0 +1,72 @@
+import java.util.Random;
+
+/**
+ * Reverse a segment of the path so that one end of a costly edge is joined to one of its nearest words.
+ * The edges with the largest contributions to the score are tried first, and each reversal is scored in
+ * constant time, so only improving moves are built.  Words around which no improving move was found are
+ * marked don't look, and the marks are inherited by the mutated child except near the edges that changed.
+ */
+public class MutateTargeted extends MutationOperator {
+	private int costliestEdges; // The number of costliest edges whose ends are tried
+
+	/**
+	 * @param costliestEdges the number of costliest edges whose ends are tried on each run
+	 */
+	public MutateTargeted(int costliestEdges) {
+		this.costliestEdges = costliestEdges;
+	}
+
+	public MutateTargeted() {
+		this(20);
+	}
+
+	@Override
+	public Solution run(Lock lock, Solution input, Random random) {
+		int n = input.getLength();
+		if (n < 3) return input;
+		for (int p: input.getCostliestEdges(costliestEdges)) {
+			// Try to join each end of the edge into position p to one of its nearest words
+			for (int end = p - 1; end <= p; end++) {
+				int word = input.getIthWord(end);
+				if (word == -1 || input.isDontLook(word)) continue;
+				long bestDelta = 0;
+				int bestI = -1;
+				int bestJ = -1;
+				for (int near: lock.getNearest(word)) {
+					// Remove the costly edge, which is after the word at p - 1 and before the word at p
+					int[] segment = input.getJoiningSegment(end, near, end == p - 1);
+					if (segment == null) continue;
+					long delta = input.getReversalDelta(segment[0], segment[1]);
+					if (delta < bestDelta) {
+						bestDelta = delta;
+						bestI = segment[0];
+						bestJ = segment[1];
+					}
+				}
+				if (bestI == -1) {
+					input.setDontLook(word, true);
+					continue;
+				}
+				return reverse(lock, input, bestI, bestJ);
+			}
+		}
+		return input;
+	}
+
+	/**
+	 * @return a copy of the input with positions i..j reversed, whose don't look bits are cleared around the new edges
+	 */
+	private Solution reverse(Lock lock, Solution input, int i, int j) {
+		Solution retVal = new Solution(lock);
+		for (int k = 0; k < input.getLength(); k++) {
+			retVal.addWord(input.getIthWord(k));
+		}
+		retVal.inheritSketch(input);
+		retVal.reverse(i, j);
+		retVal.inheritDontLook(input);
+		for (int k: new int[] {i - 1, i, j, j + 1}) {
+			if (k >= 0 && k < retVal.getLength()) retVal.setDontLook(retVal.getIthWord(k), false);
+		}
+		return retVal;
+	}
+}
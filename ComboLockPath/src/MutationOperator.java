@@ -1,9 +1,23 @@
+import java.util.Random;
+
 /**
  * A base class for an operator that induces a mutation in a
  * child solution.
  */
 public abstract class MutationOperator {
-	public abstract Solution run(Lock lock, Solution input);
+	/**
+	 * Mutate a solution
+	 * @param random the source of randomness of the search that runs the operator
+	 * @return a mutated copy, or the input itself if the operator made no change
+	 */
+	public abstract Solution run(Lock lock, Solution input, Random random);
+
+	/**
+	 * Mutate a solution using the shared generator in Optimizer
+	 */
+	public Solution run(Lock lock, Solution input) {
+		return run(lock, input, Optimizer.prng);
+	}
 
 	public String getName() {
 		return getClass().getSimpleName();
@@ -1,6 +1,7 @@
 /**
  * The class with the main method to drive the optimization process
  */
+import java.io.IOException;
 import java.util.Random;
 import java.util.Scanner;
 
@@ -14,9 +15,27 @@ public class Optimizer {
 									// process produces
 	static int populationSize = 100; // The size of a generation in the GA
 	static int generations = 100; // The number of generations in the optimization process
+	static boolean STEADY_STATE = false; // If true, each child replaces the worst member of the GA population as soon
+	                                     // as it is created, rather than culling the population after each generation
+	static double CLONE_SIMILARITY = 0.95; // GA members whose edges are estimated to be at least this similar to a
+	                                       // fitter survivor are culled first; above 1 turns the check off
+	static double ELITE_FRACTION = 0.1; // The fraction of the GA population that survives regardless of similarity
+	static String SEARCH_ENGINE = "GA"; // The search strategy: GA (genetic algorithm), SA (simulated annealing) or
+	                                    // LAHC (late acceptance hill climbing)
+	static int chains = Runtime.getRuntime().availableProcessors(); // The number of parallel chains for SA and LAHC
+	static int chainIterations = 100000; // The number of moves tried by each SA or LAHC chain
+	static int LOWER_BOUND_ITERATIONS = 200; // The number of subgradient steps taken by the background lower bound;
+	                                         // 0 turns it off
+	static double TARGET_GAP = 0.0; // Stop once the best score is within this fraction of the lower bound;
+	                                // 0 keeps searching until the budget is used
+	
+	static boolean WARM_START = true; // Seed the search with the best path saved by earlier runs on the same lock,
+	                                  // and save the best path found for later runs
 	
 	static int MIN_DISTANCE_FROM_START_WORD = 0; // The minimum distance from the starting word for a word to
 	                                             // be considered as a combination
+	static boolean PROGRESSIVE = false; // Skip the GA and build the path tier by tier from the most frequent words,
+	                                    // reporting the score of a full path after every tier
 	
 	/**
 	 * The driver method for the optimization process
@@ -33,31 +52,58 @@ public class Optimizer {
 		}
 		Lock lock = new Lock(wheels, MIN_DISTANCE_FROM_START_WORD);
 
-		double score = findShortestPath(lock);
+		double score;
+		if (PROGRESSIVE) {
+			score = new InitOpProgressive(500, 1.0, 20, true).run(lock).getScore();
+			System.out.println("Progressive solution, score: " + score);
+		}
+		else {
+			score = findShortestPath(lock);
+		}
 	}
 	
 	private static double findShortestPath(Lock lock) {
-		// The operators used to produce the initial solutions
-		InitializationOperator[] initOps = { new InitOpNextClosest()};
-		// The weight that determines how likely each initialization operator will be used
-		double[] initOpWeights = {1.0};
-		
-		// A list of mutation operators to apply to the solutions
-		MutationOperator[] mutationOperators = { new MutateReverse(), new MutateShift(), 
-												 new MutateReverse(), new MutateShift(), 
-												 new MutateReverse(), new MutateShift()};
-		// The maximum number of times each mutation operator will run
-		int[] mutationMaxTimes = {1000, 1000, 1000, 1000, 1000, 1000};
-
-		Population population = new Population(lock, initOps, initOpWeights, populationSize);
-
-		for (int g = 0; g < generations; g++) {
-			System.out.println("Generation " + (g+1));
-			population.runGeneration(mutationOperators, mutationMaxTimes);
+		SearchEngine engine = createEngine(populationSize, generations);
+		LowerBoundEngine lowerBound = null;
+		if (LOWER_BOUND_ITERATIONS > 0) {
+			lowerBound = new LowerBoundEngine(lock, LOWER_BOUND_ITERATIONS, VERBOSITY);
+			lowerBound.start();
+			engine.setLowerBound(lowerBound, TARGET_GAP);
 		}
+		Solution best = engine.run(lock);
 		System.out.print("Best solution, score: ");
-		System.out.println(population.getBest().getScore());
-		return population.getBest().getScore();
+		System.out.println(best.getScore());
+		if (WARM_START) saveBest(lock, best);
+		if (lowerBound != null) {
+			lowerBound.stop();
+			System.out.println("Lower bound: " + lowerBound.getBound() + ", optimality gap: " + (100.0 * lowerBound.getGap(best.getScore())) + "%");
+		}
+		return best.getScore();
+	}
+
+	/**
+	 * Save the best path for warm starts of later runs, if it beats the path already saved
+	 */
+	static void saveBest(Lock lock, Solution best) {
+		try {
+			if (SolutionStore.save(lock, best)) System.out.println("Saved best path to " + SolutionStore.fileFor(lock));
+		} catch (IOException e) {
+			System.out.println("Could not save best path: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Build the search engine selected by SEARCH_ENGINE with the operators used by the optimization process
+	 * @param populationSize the size of a generation in the GA
+	 * @param generations the number of generations in the GA
+	 * @return a new engine, which is not shared with any other search
+	 * @see SolverConfig#createEngine()
+	 */
+	static SearchEngine createEngine(int populationSize, int generations) {
+		SolverConfig config = new SolverConfig();
+		config.populationSize = populationSize;
+		config.generations = generations;
+		return config.createEngine();
 	}
 	
 }
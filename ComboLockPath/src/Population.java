@@ -2,21 +2,34 @@
  * The population of lock configurations for the GA
  */
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.PriorityQueue;
+import java.util.Random;
 
 public class Population {
 	private enum ResultCode {DUPLICATE, SUCCESS, BEST_SO_FAR}; // the result of adding a path configuration to the population
-	private ArrayDeque<Solution> populationList = new ArrayDeque<>(); // a queue of solutions, used to remove the old generation
+	private Solution[] members; // the members of the population, the survivors first followed by the new children
+	private double[] memberScores; // memberScores[i] is the score of members[i]
+	private int memberCount; // the number of members
 	private HashSet<Solution> populationSet = new HashSet<>(); // the current set of solutions, used to prevent duplicate
 															   // configurations
+	private PopulationStore store; // holds the paths of the members, which are views onto the store
 	private Solution bestSolutionSoFar; // The best configuration so far
 	private int targetSize; // The target population size
+	private boolean steadyState; // Whether each child replaces the worst member as soon as it is created
+	private CrossoverOperator crossoverOperator; // Combines two parents into two children
+	private double cloneSimilarity = 2.0; // Members whose edges are at least this similar to a fitter survivor are
+	                                      // culled first; values above 1 turn the check off
+	private int eliteCount = 0; // The number of fittest members that survive regardless of similarity
+	private boolean[] evict; // evict[i] is true if members[i] will be culled, used during replacement
+	private int[][] sketches; // The sketches of the members, used to compute the entropy
 	private Long lastGenerationTime;
 	private Lock lock;
+	private Random random; // The source of randomness for selection and the operators
+	private int verbosity; // How much output the population produces, with the levels of verbosity
+	private long deadline; // The time, in ms since the epoch, after which no more work is started
 
 	private Double bestSolutionFitness; //The fitness of the best configuration so far
 	
@@ -25,10 +38,29 @@ public class Population {
 	 * @param agents an array of initialization agents that generate initial solutions
 	 * @param weights weights[i]/[Sum of weights] is the probability that agents[i] will run
 	 * @param targetSize the size of the population 
+	 * @param crossoverOperator the operator that combines two parents into two children
+	 * @param steadyState if true, each child replaces the worst member as soon as it is created instead of
+	 *        the population being culled at the end of each generation
+	 * @param random the source of randomness, which is owned by this population
+	 * @param verbosity how much output the population produces; -1 turns off all output
+	 * @param deadline the time, in ms since the epoch, after which seeding stops once there is a member and
+	 *        generations stop creating children and mutations, so the population may be smaller than targetSize
 	 */
-	Population(Lock lock, InitializationOperator[] agents, double[] weights, int targetSize) {
+	Population(Lock lock, InitializationOperator[] agents, double[] weights, int targetSize,
+			CrossoverOperator crossoverOperator, boolean steadyState, Random random, int verbosity, long deadline) {
 		this.lock = lock;
+		this.random = random;
+		this.verbosity = verbosity;
+		this.deadline = deadline;
 		this.targetSize = targetSize;
+		this.crossoverOperator = crossoverOperator;
+		this.steadyState = steadyState;
+		// Room for the survivors plus a full generation of children
+		store = new PopulationStore(lock, 2 * targetSize + 2);
+		members = new Solution[2 * targetSize + 2];
+		memberScores = new double[2 * targetSize + 2];
+		evict = new boolean[2 * targetSize + 2];
+		sketches = new int[2 * targetSize + 2][];
 		if (agents.length == 0) {
 			throw new IllegalArgumentException("You must pass at least one initialization operator to seed the population.");
 		}
@@ -43,26 +75,49 @@ public class Population {
 			sum += weights[i];
 		}
 		bestSolutionFitness = lock.getFitness(); //added JP
-		System.out.println("Lock Lower Bound Fitness Score: " + bestSolutionFitness);
+		if (verbosity >= 0) System.out.println("Lock Lower Bound Fitness Score: " + bestSolutionFitness);
 		
 		// Seed the population with initial solutions
-		while (populationList.size() != targetSize) {
+		while (memberCount != targetSize && (memberCount == 0 || !pastDeadline())) {
 			InitializationOperator agent = rouletteSelection(agents, weights, sum);
-			Solution solution = agent.run(lock);
+			Solution solution = agent.run(lock, random);
 			switch (insert(solution)) {
 			case SUCCESS:
-				if (Optimizer.VERBOSITY > 1) System.out.println(agent.getName() + ": " + solution.getScore() + " " + solution.toString());
+				if (verbosity > 1) System.out.println(agent.getName() + ": " + solution.getScore() + " " + solution.toString());
 				break;
 			case DUPLICATE:
-				if (Optimizer.VERBOSITY > 0) System.out.println(agent.getName() + ": produced duplicate solution." + " " + solution.toString());
+				if (verbosity > 0) System.out.println(agent.getName() + ": produced duplicate solution." + " " + solution.toString());
 				break;
 			case BEST_SO_FAR:
-				System.out.println("BEST " + agent.getName() + ": " + solution.getScore());
+				if (verbosity >= 0) System.out.println("BEST " + agent.getName() + ": " + solution.getScore());
 				break;
 			}
 		}
 	}
 
+	/**
+	 * @return true iff the deadline has passed, so no more work should be started
+	 */
+	private boolean pastDeadline() {
+		return System.currentTimeMillis() >= deadline;
+	}
+
+	/**
+	 * Make the culling at the end of each generation preserve diversity.  After the elites, members are
+	 * kept in order of fitness, but a member that is a near clone of one already kept is culled first.
+	 * Steady state populations always replace their worst member.
+	 * @param cloneSimilarity members whose estimated edge similarity to a fitter kept member is at least this
+	 *        value are near clones; a value above 1 turns the check off
+	 * @param eliteCount the number of fittest members that survive regardless of similarity
+	 */
+	public void setDiversity(double cloneSimilarity, int eliteCount) {
+		if (eliteCount < 0 || eliteCount > targetSize) {
+			throw new IllegalArgumentException("The elite count must be between 0 and the population size.");
+		}
+		this.cloneSimilarity = cloneSimilarity;
+		this.eliteCount = eliteCount;
+	}
+
 	/**
 	 * Create a new generation of child solutions
 	 * 
@@ -71,39 +126,36 @@ public class Population {
 	 */
 	public void runGeneration(MutationOperator[] mutationOperators, int[] maxMutations) {
 		// Create children
-		for (int i = 0; i < targetSize; i += 2)  {
+		for (int i = 0; i < targetSize && !pastDeadline(); i += 2)  {
 			generateChildren(mutationOperators, maxMutations);
 		}
 		
-		// Kill the parents
-		/*while (populationList.size() > targetSize) {
-			populationSet.remove(populationList.remove());
-		}*/
 		// Use elitism and kill the least fit solutions
-		PriorityQueue<Solution> pq = new PriorityQueue<>();
-		for (Solution solution: populationList) {
-			pq.add(solution);
-		}
-		for (int i = 0; i < targetSize; i++) pq.remove();
-		while(pq.size() > 0) {
-			Solution unfit = pq.remove();
-			populationSet.remove(unfit);
+		if (memberCount > targetSize) {
+			if (cloneSimilarity <= 1.0) selectDiverse(targetSize);
+			else selectFittest(targetSize);
+			while (memberCount > targetSize) {
+				Solution unfit = members[--memberCount];
+				members[memberCount] = null;
+				populationSet.remove(unfit);
+				store.release(unfit);
+			}
 		}
 		double bestInPopulation = Double.MAX_VALUE;
 		double worstInPopulation = 0.0;
 		double sumOfPopulation = 0.0;
-		populationList.clear();
-		for (Solution solution: populationSet) {
-			populationList.add(solution);
-			bestInPopulation = Math.min(bestInPopulation, solution.getScore());
-			worstInPopulation = Math.max(worstInPopulation, solution.getScore());
-			sumOfPopulation += solution.getScore();
+		for (int i = 0; i < memberCount; i++) {
+			bestInPopulation = Math.min(bestInPopulation, memberScores[i]);
+			worstInPopulation = Math.max(worstInPopulation, memberScores[i]);
+			sumOfPopulation += memberScores[i];
+			sketches[i] = members[i].getSketch();
 		}
-		if (lastGenerationTime != null)
+		double entropy = EdgeSketch.entropy(sketches, memberCount);
+		if (lastGenerationTime != null && verbosity >= 0)
 			System.out.println("Time (ms): " + (System.currentTimeMillis() - lastGenerationTime));
 		lastGenerationTime = System.currentTimeMillis();
-		System.out.println("Population Stats: best: " + bestInPopulation + " worst: " + worstInPopulation + 
-				" ave: " + sumOfPopulation / populationList.size() + " bsf: " + bestSolutionFitness);
+		if (verbosity >= 0) System.out.println("Population Stats: best: " + bestInPopulation + " worst: " + worstInPopulation + 
+				" ave: " + sumOfPopulation / memberCount + " bsf: " + bestSolutionFitness + " entropy: " + entropy);
 	}
 	
 	/**
@@ -113,17 +165,17 @@ public class Population {
 	 */
 	public void generateChildren(MutationOperator[] mutationOperators, int[] maxMutations) {
 		Solution[] parents = selectParents();
-		Solution[] children = crossover(parents);
-		if (Optimizer.VERBOSITY == 2) System.out.println("Parent fitness " + parents[0].getScore() + " " + parents[1].getScore());
+		Solution[] children = crossoverOperator.run(lock, parents, random);
+		if (verbosity == 2) System.out.println("Parent fitness " + parents[0].getScore() + " " + parents[1].getScore());
 		for (int i = 0; i < children.length; i++) {
 			// Run a greedy mutation process for child
 			Solution solution = children[i];
 			double startScore = children[i].getScore();
 			for (int j = 0; j < mutationOperators.length; j++) {
 				MutationOperator mutation =  mutationOperators[j];
-				int times = Optimizer.prng.nextInt(maxMutations[j]);
-				for (int t = 0; t < times; t++) {
-					solution = mutation.run(lock,children[i]); // This would be another way to generate the mutations by always
+				int times = random.nextInt(maxMutations[j]);
+				for (int t = 0; t < times && !pastDeadline(); t++) {
+					solution = mutation.run(lock, children[i], random); // This would be another way to generate the mutations by always
 															// starting with the best mutation seen so far
 					//solution = mutation.run(lock, solution);
 					if (solution.getScore() < children[i].getScore()) {
@@ -131,20 +183,163 @@ public class Population {
 					}
 				}
 			}
-			if (Optimizer.VERBOSITY == 2) System.out.println("mutations improved from " + startScore + " to " + children[i].getScore());
+			if (verbosity == 2) System.out.println("mutations improved from " + startScore + " to " + children[i].getScore());
 			switch(insert(children[i])) {
 			case DUPLICATE:
-				if (Optimizer.VERBOSITY > 0) System.out.println("Offspring produced was duplicate. " + children[i].toString());
+				if (verbosity > 0) System.out.println("Offspring produced was duplicate. " + children[i].toString());
 				break;
 			case BEST_SO_FAR:
-				System.out.println("BEST " + children[i].getScore());
+				if (verbosity >= 0) System.out.println("BEST " + children[i].getScore());
 				break;
 			case SUCCESS:
-				if (Optimizer.VERBOSITY > 0) System.out.println(children[i].getScore());
+				if (verbosity > 0) System.out.println(children[i].getScore());
+			}
+			if (steadyState && memberCount > targetSize) {
+				removeWorst();
 			}
 		}
 	}
 
+	/**
+	 * Rearrange the members so that the count fittest come first, using an in place quickselect on the scores
+	 * @param count the number of members to move to the front
+	 */
+	private void selectFittest(int count) {
+		int left = 0;
+		int right = memberCount - 1;
+		while (left < right) {
+			double pivot = memberScores[(left + right) >>> 1];
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (memberScores[i] < pivot) i++;
+				while (memberScores[j] > pivot) j--;
+				if (i <= j) {
+					swapMembers(i, j);
+					i++;
+					j--;
+				}
+			}
+			// [left..j] <= pivot <= [i..right]
+			if (count - 1 <= j) right = j;
+			else if (count - 1 >= i) left = i;
+			else break;
+		}
+	}
+
+	/**
+	 * Rearrange the members so that the count members that survive come first.  The elites always survive,
+	 * then members survive in order of fitness unless they are a near clone of a fitter survivor.  If that
+	 * leaves too few members, the fittest near clones survive as well.
+	 *
+	 * Near clones are equal in at least one band of their sketches, so the survivors are bucketed by the hash
+	 * of each band and a member is only compared with the survivors in its buckets.
+	 * @param count the number of members to move to the front
+	 */
+	private void selectDiverse(int count) {
+		sortMembers(0, memberCount - 1);
+		int bands = EdgeSketch.bandsFor(cloneSimilarity);
+		HashMap<Long, ArrayList<Integer>> buckets = new HashMap<>();
+		int kept = 0;
+		for (int i = 0; i < memberCount; i++) {
+			evict[i] = kept >= count;
+			if (evict[i]) continue;
+			int[] sketch = members[i].getSketch();
+			if (i >= eliteCount) evict[i] = isNearClone(sketch, i, bands, buckets);
+			if (!evict[i]) {
+				kept++;
+				for (int band = 0; band < bands; band++) {
+					buckets.computeIfAbsent(EdgeSketch.bandHash(sketch, band, bands), k -> new ArrayList<>()).add(i);
+				}
+			}
+		}
+		for (int i = 0; i < memberCount && kept < count; i++) {
+			if (evict[i]) {
+				evict[i] = false;
+				kept++;
+			}
+		}
+		int next = 0;
+		for (int i = 0; i < memberCount; i++) {
+			if (!evict[i]) swapMembers(i, next++);
+		}
+	}
+
+	/**
+	 * @param bands the number of bands the survivors are bucketed by, or 0 to compare with every survivor
+	 * @return true iff the sketch is at least cloneSimilarity similar to that of a survivor before member i
+	 */
+	private boolean isNearClone(int[] sketch, int i, int bands, HashMap<Long, ArrayList<Integer>> buckets) {
+		if (bands == 0) {
+			for (int j = 0; j < i; j++) {
+				if (!evict[j] && EdgeSketch.similarity(sketch, members[j].getSketch()) >= cloneSimilarity) return true;
+			}
+			return false;
+		}
+		for (int band = 0; band < bands; band++) {
+			ArrayList<Integer> bucket = buckets.get(EdgeSketch.bandHash(sketch, band, bands));
+			if (bucket == null) continue;
+			for (int j: bucket) {
+				if (EdgeSketch.similarity(sketch, members[j].getSketch()) >= cloneSimilarity) return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Sort members[left..right] by increasing score
+	 */
+	private void sortMembers(int left, int right) {
+		while (left < right) {
+			double pivot = memberScores[(left + right) >>> 1];
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (memberScores[i] < pivot) i++;
+				while (memberScores[j] > pivot) j--;
+				if (i <= j) {
+					swapMembers(i, j);
+					i++;
+					j--;
+				}
+			}
+			// Recurse into the smaller side and loop on the larger one
+			if (j - left < right - i) {
+				sortMembers(left, j);
+				left = i;
+			}
+			else {
+				sortMembers(i, right);
+				right = j;
+			}
+		}
+	}
+
+	/**
+	 * Remove the member with the highest score
+	 */
+	private void removeWorst() {
+		int worst = 0;
+		for (int i = 1; i < memberCount; i++) {
+			if (memberScores[i] > memberScores[worst]) worst = i;
+		}
+		Solution unfit = members[worst];
+		memberCount--;
+		swapMembers(worst, memberCount);
+		members[memberCount] = null;
+		populationSet.remove(unfit);
+		store.release(unfit);
+	}
+
+	private void swapMembers(int i, int j) {
+		Solution member = members[i];
+		members[i] = members[j];
+		members[j] = member;
+		double score = memberScores[i];
+		memberScores[i] = memberScores[j];
+		memberScores[j] = score;
+	}
+
 	/** 
 	 * Accessor method 
 	 * @return the best solution seen so far
@@ -158,7 +353,7 @@ public class Population {
 	 * @return the number of children in the population
 	 */
 	public int getSize() {
-		return populationList.size();
+		return memberCount;
 	}
 	
 	/**
@@ -169,7 +364,7 @@ public class Population {
 	 * @return
 	 */
 	private InitializationOperator rouletteSelection(InitializationOperator[] agents, double[] weights, double sum) {
-		double selector = Optimizer.prng.nextDouble() * sum;
+		double selector = random.nextDouble() * sum;
 		int index = 0;
 		while (selector > weights[index] && index < agents.length - 1) {
 			selector -= weights[index];
@@ -187,15 +382,17 @@ public class Population {
 		double sum = 0;
 		int count = 0;
 		double maxScore = 0;
-		for (Solution solution: populationList) {
+		for (int m = 0; m < memberCount; m++) {
+			Solution solution = members[m];
 			if (count == targetSize) break;
 			sum += solution.getScore();
 			maxScore = Math.max(maxScore, solution.getScore() + 1);
 			count++;
 		}
-		double selector = (count * maxScore - sum) * Optimizer.prng.nextDouble();
+		double selector = (count * maxScore - sum) * random.nextDouble();
 		count = 0;
-		for (Solution solution: populationList) {
+		for (int m = 0; m < memberCount; m++) {
+			Solution solution = members[m];
 			selector -= (maxScore - solution.getScore());
 			if (selector <= 0 || count == targetSize - 1) {
 				parents[0] = solution;
@@ -205,16 +402,18 @@ public class Population {
 		}
 		sum = 0;
 		count = 0;
-		for (Solution solution: populationList) {
+		for (int m = 0; m < memberCount; m++) {
+			Solution solution = members[m];
 			if (count == targetSize) break;
 			if (solution != parents[0]) {
 				sum += solution.getScore();
 				count++;
 			}
 		}
-		selector = sum * Optimizer.prng.nextDouble();
+		selector = sum * random.nextDouble();
 		count = 0;
-		for (Solution solution: populationList) {
+		for (int m = 0; m < memberCount; m++) {
+			Solution solution = members[m];
 			if (solution != parents[0]) {
 				selector -= solution.getScore();
 				if (selector <= 0) {
@@ -226,7 +425,7 @@ public class Population {
 			if (count == targetSize) {
 				parents[1] = solution;
 				if (parents[1] == parents[0])
-					parents[1] = populationList.getFirst();
+					parents[1] = members[0];
 				break;
 			}
 		}
@@ -234,109 +433,6 @@ public class Population {
 	}
 
 
-	private Solution[] crossover(Solution[] parents) {
-		Solution[] children = {new Solution(lock), new Solution(lock)};
-		if (parents[0].equals(parents[1])) {
-			throw new RuntimeException("Duplicate parents: " + parents[0] + "\n" + parents[1]);
-		}
-		// Find a point where the solutions diverge
-		HashSet<Integer> child0Words = new HashSet<>();
-		HashSet<Integer> child1Words = new HashSet<>();
-		int index = 0;
-		while(parents[0].getIthWord(index) == parents[1].getIthWord(index)) {
-			int word = parents[0].getIthWord(index);
-			children[0].addWord(word);
-			children[1].addWord(word);
-			child0Words.add(word);
-			child1Words.add(word);
-			index++;
-		}
-		
-		if (index == lock.getWordCount()) {
-			throw new RuntimeException("Duplicate solutions were found in the population");
-		}
-		
-		// Add words from parent 0 to child 1 until we get to the next word queued up in parent 1
-		int nextWordIn1 = parents[1].getIthWord(index);
-		int index1 = index;
-		while (parents[0].getIthWord(index1) != nextWordIn1 && index1 < lock.getWordCount()) {
-			int word = parents[0].getIthWord(index1);
-			if (child1Words.contains(word)) throw new RuntimeException("Error in algorithm");
-			children[1].addWord(word);
-			child1Words.add(word);
-			index1++;
-		}
-		
-		// Add words from parent 1 to child 0 until we get to the next word queued up in parent 0
-		int index2 = index;
-		int nextWordIn0 = parents[0].getIthWord(index2);
-		while (parents[1].getIthWord(index2) != nextWordIn0 && index2 < lock.getWordCount()) {
-			int word = parents[1].getIthWord(index2);
-			if (child0Words.contains(word)) throw new RuntimeException("Error in algorithm");
-			children[0].addWord(word);
-			child0Words.add(word);
-			index2++;
-		}
-		
-		// Add remaining words to children using closest city heuristic
-		while (index < lock.getWordCount()) {
-			int word = parents[0].getIthWord(index);
-			if (!child0Words.contains(word)) {
-				children[0].addWord(word);
-			}
-			word = parents[1].getIthWord(index);
-			if (!child1Words.contains(word)) {
-				children[1].addWord(word);
-			}
-			index++;
-		}
-		
-		return children;
-	}
-	
-	/**
-	 * Create 2 children by applying a crossover operator to the parents.
-	 * At each wheel we choose a random half of the letters for one offspring, and use
-	 * the other letters for the other offspring.
-	 * 
-	 * @param parents the parents
-	 * @return an array of two child lock configurations
-	 */
-	private Solution[] crossover_v1(Solution[] parents) {
-		Solution[] children = {new Solution(lock), new Solution(lock)};
-		
-		int point = Optimizer.prng.nextInt(lock.getWordCount()-1);
-		
-		HashSet<Integer> child1Words = new HashSet<>();
-		HashSet<Integer> child2Words = new HashSet<>();
-
-		for (int i = 0; i <= point; i++) {
-			int word = parents[0].getIthWord(i);
-			children[0].addWord(word);
-			child1Words.add(word);
-			word = parents[1].getIthWord(i);
-			children[1].addWord(word);
-			child2Words.add(word);
-		}
-		for (int i = 0; i < lock.getWordCount(); i++) {
-			int word = parents[1].getIthWord(i);
-			if (!child1Words.contains(word)) {
-				children[0].addWord(word);
-				child1Words.add(word);
-			}
-			word = parents[0].getIthWord(i);
-			if (!child2Words.contains(word)) {
-				children[1].addWord(word);
-				child2Words.add(word);
-			}
-		}
-		if (child1Words.size() != lock.getWordCount() || child1Words.size() != lock.getWordCount()) {
-			throw new RuntimeException("Child has an incorrect number of words.");
-		}
-		
-		return children;
-	}
-
 	/**
 	 * Add a solution to the population, if there is not an identical solution already present
 	 * @param solution the solution to be added
@@ -346,8 +442,11 @@ public class Population {
 	private ResultCode insert(Solution solution) {
 		if (populationSet.contains(solution)) return ResultCode.DUPLICATE;
 		double score = solution.getScore();
-		populationList.add(solution);
-		populationSet.add(solution);
+		Solution member = store.store(solution);
+		members[memberCount] = member;
+		memberScores[memberCount] = score;
+		memberCount++;
+		populationSet.add(member);
 		if (bestSolutionSoFar == null || bestSolutionSoFar.getScore() > score) {
 			bestSolutionSoFar = solution;
 			return ResultCode.BEST_SO_FAR;
@@ -0,0 +1,147 @@
+/**
+ * Compact storage for the paths of a population.  Every path is packed into one contiguous
+ * short[] slab, with the scores, hash codes and edge sketches in parallel arrays, and members are handed out
+ * as flyweight Solution views onto their slot.  Released slots are reused in place.
+ */
+public class PopulationStore {
+	private static final int MAX_WORDS = 0xFFFF; // Word indices are stored as unsigned 16 bit values
+
+	private Lock lock;
+	private int wordCount; // The length of every stored path
+	private short[] paths; // paths[slot * wordCount + i] is the ith word of the path in the slot
+	private double[] scores; // The score of the path in each slot
+	private int[] hashCodes; // The hash code of the path in each slot
+	private int[][] sketches; // The edge sketch of the path in each slot
+	private StoredSolution[] views; // The flyweight view of each slot
+	private int[] freeSlots; // A stack of the slots that are not in use
+	private int freeCount; // The number of slots on the stack
+
+	/**
+	 * @param lock the lock whose paths will be stored
+	 * @param capacity the maximum number of paths held at once
+	 */
+	public PopulationStore(Lock lock, int capacity) {
+		if (lock.getWordCount() > MAX_WORDS) {
+			throw new IllegalArgumentException("The store can only hold paths of up to " + MAX_WORDS + " words.");
+		}
+		this.lock = lock;
+		this.wordCount = lock.getWordCount();
+		paths = new short[capacity * wordCount];
+		scores = new double[capacity];
+		hashCodes = new int[capacity];
+		sketches = new int[capacity][];
+		views = new StoredSolution[capacity];
+		freeSlots = new int[capacity];
+		for (int slot = 0; slot < capacity; slot++) {
+			views[slot] = new StoredSolution(this, slot);
+			freeSlots[freeCount++] = capacity - 1 - slot;
+		}
+	}
+
+	/**
+	 * Copy a solution into a free slot
+	 * @param solution a complete path through the words of the lock
+	 * @return the view of the stored copy
+	 */
+	public Solution store(Solution solution) {
+		if (freeCount == 0) {
+			throw new IllegalStateException("The population store is full.");
+		}
+		if (solution.getLength() != wordCount) {
+			throw new IllegalArgumentException("Only complete paths can be stored.");
+		}
+		int slot = freeSlots[--freeCount];
+		int base = slot * wordCount;
+		for (int i = 0; i < wordCount; i++) {
+			paths[base + i] = (short) (int) solution.getIthWord(i);
+		}
+		scores[slot] = solution.getScore();
+		hashCodes[slot] = solution.hashCode();
+		sketches[slot] = solution.getSketch();
+		// The view may have held another path, so its edge index and don't look bits are replaced
+		views[slot].invalidate();
+		views[slot].inheritDontLook(solution);
+		return views[slot];
+	}
+
+	/**
+	 * Return the slot of a stored solution to the free stack.  The view must not be used afterwards.
+	 * @param member a view returned by store
+	 */
+	public void release(Solution member) {
+		if (!(member instanceof StoredSolution) || ((StoredSolution) member).store != this) {
+			throw new IllegalArgumentException("The solution is not held by this store.");
+		}
+		int slot = ((StoredSolution) member).slot;
+		sketches[slot] = null;
+		freeSlots[freeCount++] = slot;
+	}
+
+	/**
+	 * @return the number of slots in use
+	 */
+	public int getSize() {
+		return views.length - freeCount;
+	}
+
+	/**
+	 * A read-only view of the path held in one slot of a store
+	 */
+	private static class StoredSolution extends Solution {
+		private PopulationStore store;
+		private int slot;
+
+		StoredSolution(PopulationStore store, int slot) {
+			super(store.lock);
+			this.store = store;
+			this.slot = slot;
+		}
+
+		@Override
+		public Integer getIthWord(int i) {
+			if (i == -1) return -1;
+			if (i < 0 || i >= store.wordCount) throw new IndexOutOfBoundsException("Index: " + i);
+			return store.paths[slot * store.wordCount + i] & 0xFFFF;
+		}
+
+		@Override
+		public void setIthWord(int i, Integer wordIndex) {
+			throw new UnsupportedOperationException("Stored solutions are read-only.");
+		}
+
+		@Override
+		public void addWord(Integer wordIndex) {
+			throw new UnsupportedOperationException("Stored solutions are read-only.");
+		}
+
+		@Override
+		public void insertWord(int q, Integer wordIndex) {
+			throw new UnsupportedOperationException("Stored solutions are read-only.");
+		}
+
+		@Override
+		public Integer removeWord(int q) {
+			throw new UnsupportedOperationException("Stored solutions are read-only.");
+		}
+
+		@Override
+		public int getLength() {
+			return store.wordCount;
+		}
+
+		@Override
+		double getScore() {
+			return store.scores[slot];
+		}
+
+		@Override
+		int[] getSketch() {
+			return store.sketches[slot];
+		}
+
+		@Override
+		public int hashCode() {
+			return store.hashCodes[slot];
+		}
+	}
+}
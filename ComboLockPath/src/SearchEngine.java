@@ -0,0 +1,108 @@
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * A base class for a strategy that searches for a short path through
+ * the words of a lock
+ */
+public abstract class SearchEngine {
+	private Consumer<Solution> listener; // Notified whenever the best solution improves
+	private long deadline = Long.MAX_VALUE; // The time, in ms since the epoch, at which the search should stop
+	private LowerBoundEngine lowerBound; // Bounds the score of any path, if set
+	private double targetGap = 0.0; // The search stops once the best score is within this fraction of the lower bound
+	private volatile double bestScore = Double.MAX_VALUE; // The score of the best solution reported so far
+	private Random random = null; // The source of randomness, or null to use Optimizer.prng
+	protected int verbosity = Optimizer.VERBOSITY; // How much output the search produces; -1 for none
+
+	/**
+	 * Search for a path
+	 * @param lock the lock whose words must be visited
+	 * @return the best solution found
+	 */
+	public abstract Solution run(Lock lock);
+
+	/**
+	 * @param listener notified with the new best solution whenever the search improves on it.  It may be
+	 *        called from several threads.
+	 */
+	public void setListener(Consumer<Solution> listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * @param deadline the time, in ms since the epoch, at which the search should stop and return its best solution
+	 */
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	/**
+	 * @return the time, in ms since the epoch, at which the search should stop
+	 */
+	protected long getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * @param random the source of randomness of this search, so that searches can run side by side
+	 *        without sharing Optimizer.prng
+	 */
+	public void setRandom(Random random) {
+		this.random = random;
+	}
+
+	/**
+	 * @param verbosity how much output the search produces, with the same levels as Optimizer.VERBOSITY;
+	 *        -1 turns off all output
+	 */
+	public void setVerbosity(int verbosity) {
+		this.verbosity = verbosity;
+	}
+
+	/**
+	 * @return the source of randomness of this search
+	 */
+	protected Random getRandom() {
+		return (random == null) ? Optimizer.prng : random;
+	}
+
+	/**
+	 * @param lowerBound a running lower bound engine, which is told the best score found
+	 * @param targetGap the search stops once the best score is within this fraction of the lower bound;
+	 *        0 keeps searching until the budget is used
+	 */
+	public void setLowerBound(LowerBoundEngine lowerBound, double targetGap) {
+		this.lowerBound = lowerBound;
+		this.targetGap = targetGap;
+	}
+
+	/**
+	 * @return how far the best score is above the lower bound, as a fraction of the lower bound,
+	 *         or NaN if there is no lower bound or solution yet
+	 */
+	public double getGap() {
+		if (lowerBound == null || bestScore == Double.MAX_VALUE) return Double.NaN;
+		return lowerBound.getGap(bestScore);
+	}
+
+	/**
+	 * Pass a new best solution to the listener
+	 */
+	protected void reportBest(Solution best) {
+		bestScore = Math.min(bestScore, best.getScore());
+		if (lowerBound != null) lowerBound.setUpperBound(bestScore);
+		if (listener != null) listener.accept(best);
+	}
+
+	/**
+	 * @return true iff the search should stop before using its full budget
+	 */
+	protected boolean shouldStop() {
+		if (targetGap > 0.0 && getGap() <= targetGap) return true;
+		return System.currentTimeMillis() >= deadline;
+	}
+
+	public String getName() {
+		return getClass().getSimpleName();
+	}
+}
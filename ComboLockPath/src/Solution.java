@@ -1,5 +1,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.PriorityQueue;
 
 /**
  * A class whose objects represent lock configurations
@@ -8,6 +10,12 @@ public class Solution implements Comparable<Solution> {
 	private Lock lock;
 	private ArrayList<Integer> path = new ArrayList<>(); // The order in which we visit values
 	private Double score = null; // The score
+	private int[] sketch = null; // The MinHash sketch of the edges of the path
+	private int[] edgeCosts = null; // edgeCosts[i] is one plus the distance from the word before position i to word i
+	private long[] costSums = null; // costSums[i] is the sum of edgeCosts[0..i)
+	private long[] indexedCostSums = null; // indexedCostSums[i] is the sum of k * edgeCosts[k] for k in [0..i)
+	private int[] positions = null; // positions[w] is the position of word w in the path, or -1
+	private BitSet dontLook = new BitSet(); // Words around which a targeted mutation found no improvement
 	
 	public Solution(Lock lock) {
 		this.lock = lock;
@@ -20,14 +28,75 @@ public class Solution implements Comparable<Solution> {
 
 	public void setIthWord(int i, Integer wordIndex) {
 		score = null;
+		sketch = null;
+		edgeCosts = null;
 		path.set(i, wordIndex);
 	}
 
 	public void addWord(Integer wordIndex) {
 		score = null;
+		sketch = null;
+		edgeCosts = null;
 		path.add(wordIndex);
 	}
 
+	/**
+	 * Insert a word before position q, shifting the later words back by one
+	 */
+	public void insertWord(int q, Integer wordIndex) {
+		score = null;
+		sketch = null;
+		edgeCosts = null;
+		path.add(q, wordIndex);
+	}
+
+	/**
+	 * Remove the word at position q, shifting the later words forward by one
+	 * @return the word that was removed
+	 */
+	public Integer removeWord(int q) {
+		score = null;
+		sketch = null;
+		edgeCosts = null;
+		return path.remove(q);
+	}
+
+	/**
+	 * Reverse the words at positions i..j in place.  Only the edges at the ends of the segment change, so a
+	 * sketch that is already known is updated rather than dropped.
+	 */
+	public void reverse(int i, int j) {
+		if (i >= j) return;
+		int[] updated = null;
+		if (sketch != null) {
+			int before = getIthWord(i - 1);
+			int first = getIthWord(i);
+			int last = getIthWord(j);
+			updated = sketch.clone();
+			boolean valid = EdgeSketch.remove(updated, before, first);
+			EdgeSketch.add(updated, before, last);
+			if (j + 1 < getLength()) {
+				int after = getIthWord(j + 1);
+				valid = EdgeSketch.remove(updated, last, after) && valid;
+				EdgeSketch.add(updated, first, after);
+			}
+			if (!valid) updated = null;
+		}
+		for (; i < j; i++, j--) {
+			Integer word = getIthWord(i);
+			setIthWord(i, getIthWord(j));
+			setIthWord(j, word);
+		}
+		sketch = updated;
+	}
+
+	/**
+	 * @return the number of words in the path
+	 */
+	public int getLength() {
+		return path.size();
+	}
+
 	/**
 	 * Get the fitness of the lock configuration
 	 * @return a score, which is currently the number of words that can be made from the 
@@ -38,15 +107,238 @@ public class Solution implements Comparable<Solution> {
 			score = 0.0;
 			int distSoFar = 0;
 			int lastWord = -1;
-			for (int i = 0; i < path.size(); i++) {
-				distSoFar += 1 + lock.distance(lastWord, path.get(i)); // One to try this word
+			for (int i = 0; i < getLength(); i++) {
+				int word = getIthWord(i);
+				distSoFar += 1 + lock.distance(lastWord, word); // One to try this word
 				score += distSoFar;
-				lastWord = path.get(i);
+				lastWord = word;
 			}
 		}
 		return score;
 	}
 
+	/**
+	 * @return the MinHash sketch of the edges of the path, used to estimate the similarity of two paths
+	 */
+	int[] getSketch() {
+		if (sketch == null) {
+			sketch = EdgeSketch.of(this);
+		}
+		return sketch;
+	}
+
+	/**
+	 * Set the sketch of the path, for a path whose sketch was updated from that of a parent
+	 */
+	void setSketch(int[] sketch) {
+		this.sketch = sketch;
+	}
+
+	/**
+	 * Share the sketch of a solution with the same path, if it has been computed, so that later changes to
+	 * this path can update it
+	 */
+	void inheritSketch(Solution solution) {
+		sketch = solution.sketch;
+	}
+
+	/**
+	 * Compute the edge costs, their prefix sums and the position of each word, if they are not already known
+	 */
+	private void indexEdges() {
+		if (edgeCosts != null) return;
+		int n = getLength();
+		int[] costs = new int[n];
+		costSums = new long[n + 1];
+		indexedCostSums = new long[n + 1];
+		positions = new int[lock.getWordCount()];
+		Arrays.fill(positions, -1);
+		int lastWord = -1;
+		for (int i = 0; i < n; i++) {
+			int word = getIthWord(i);
+			costs[i] = 1 + lock.distance(lastWord, word);
+			costSums[i + 1] = costSums[i] + costs[i];
+			indexedCostSums[i + 1] = indexedCostSums[i] + (long) i * costs[i];
+			positions[word] = i;
+			lastWord = word;
+		}
+		edgeCosts = costs;
+	}
+
+	/**
+	 * @return the contribution to the score of the edge into position i, which is its cost times the number of
+	 *         words from position i to the end of the path
+	 */
+	double getContribution(int i) {
+		indexEdges();
+		return (double) (getLength() - i) * edgeCosts[i];
+	}
+
+	/**
+	 * @return the positions of the k edges with the largest contributions to the score, largest first, skipping
+	 *         edges whose ends are both marked don't look
+	 */
+	int[] getCostliestEdges(int k) {
+		indexEdges();
+		k = Math.min(k, getLength());
+		PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(getContribution(a), getContribution(b)));
+		for (int i = 0; i < getLength(); i++) {
+			if ((i == 0 || dontLook.get(getIthWord(i - 1))) && dontLook.get(getIthWord(i))) continue;
+			heap.add(i);
+			if (heap.size() > k) heap.poll();
+		}
+		int[] costliest = new int[heap.size()];
+		for (int i = costliest.length - 1; i >= 0; i--) {
+			costliest[i] = heap.poll();
+		}
+		return costliest;
+	}
+
+	/**
+	 * @return the position of a word in the path, or -1 if it is not in the path
+	 */
+	int getPosition(int word) {
+		indexEdges();
+		return positions[word];
+	}
+
+	/**
+	 * Find the change in score from reversing part of the path in constant time.  The two edges at the ends
+	 * of the segment change, and every edge inside it moves to the mirrored position, where it has a different
+	 * number of words after it.
+	 * @param i the first position of the segment
+	 * @param j the last position of the segment
+	 * @return the score of the path with positions i..j reversed minus the score of this path
+	 */
+	long getReversalDelta(int i, int j) {
+		indexEdges();
+		int n = getLength();
+		long delta = (long) (n - i) * (1 + lock.distance(getIthWord(i - 1), getIthWord(j)) - edgeCosts[i]);
+		if (j + 1 < n) {
+			delta += (long) (n - j - 1) * (1 + lock.distance(getIthWord(i), getIthWord(j + 1)) - edgeCosts[j + 1]);
+		}
+		// The edge at position m in (i..j] moves to position i+j+1-m
+		delta += 2 * (indexedCostSums[j + 1] - indexedCostSums[i + 1]) - (long) (i + j + 1) * (costSums[j + 1] - costSums[i + 1]);
+		return delta;
+	}
+
+	/**
+	 * Find the 2-opt reversal that joins the word at a position to another word by removing one of its edges
+	 * @param end the position of the word that is joined
+	 * @param near the word that it is joined to
+	 * @param after true to remove the edge after position end, false to remove the edge before it
+	 * @return the positions {i, j} of the segment to reverse, or null if near is not in the path or is
+	 *         already joined to the word on that side
+	 */
+	int[] getJoiningSegment(int end, int near, boolean after) {
+		int q = getPosition(near);
+		if (q == -1) return null;
+		int i;
+		int j;
+		if (after) {
+			if (q > end) { i = end + 1; j = q; }
+			else { i = q + 1; j = end; }
+		}
+		else {
+			if (q < end) { i = q; j = end - 1; }
+			else { i = end; j = q - 1; }
+		}
+		return (i < j) ? new int[] {i, j} : null;
+	}
+
+	/**
+	 * Find the change in score from inserting a word in constant time.  The word is reached after the
+	 * distance travelled to the word before it, and every later word is tried one step later and after the
+	 * detour through the new word.
+	 * @param word a word that is not in the path
+	 * @param q the position that the word is inserted before
+	 * @return the score of the path with the word inserted minus the score of this path
+	 */
+	long getInsertionDelta(int word, int q) {
+		indexEdges();
+		int n = getLength();
+		int before = getIthWord(q - 1);
+		long delta = costSums[q] + 1 + lock.distance(before, word);
+		if (q < n) {
+			int after = getIthWord(q);
+			delta += (long) (n - q) * (1 + lock.distance(before, word) + lock.distance(word, after) - lock.distance(before, after));
+		}
+		return delta;
+	}
+
+	/**
+	 * @return the position at which inserting the word increases the score the least
+	 */
+	int getCheapestInsertion(int word) {
+		int bestPosition = 0;
+		long bestDelta = Long.MAX_VALUE;
+		for (int q = 0; q <= getLength(); q++) {
+			long delta = getInsertionDelta(word, q);
+			if (delta < bestDelta) {
+				bestDelta = delta;
+				bestPosition = q;
+			}
+		}
+		return bestPosition;
+	}
+
+	/**
+	 * Apply improving 2-opt reversals that join a word to one of its nearest words, until no such reversal
+	 * is left or the passes run out.  Each reversal is scored in constant time with getReversalDelta.
+	 * @param passes the maximum number of passes over the path
+	 * @return the number of reversals applied
+	 */
+	int improveByNearestReversals(int passes) {
+		int applied = 0;
+		for (int pass = 0; pass < passes; pass++) {
+			int before = applied;
+			for (int end = 0; end < getLength(); end++) {
+				int word = getIthWord(end);
+				for (int near: lock.getNearest(word)) {
+					int[] segment = getJoiningSegment(end, near, true);
+					if (segment == null || getReversalDelta(segment[0], segment[1]) >= 0) {
+						segment = getJoiningSegment(end, near, false);
+						if (segment == null || getReversalDelta(segment[0], segment[1]) >= 0) continue;
+					}
+					reverse(segment[0], segment[1]);
+					applied++;
+					break;
+				}
+			}
+			if (applied == before) break;
+		}
+		return applied;
+	}
+
+	/**
+	 * @return true iff targeted mutations should skip moves around the word
+	 */
+	boolean isDontLook(int word) {
+		return dontLook.get(word);
+	}
+
+	void setDontLook(int word, boolean value) {
+		dontLook.set(word, value);
+	}
+
+	/**
+	 * Forget everything computed from the path and the don't look bits, for a solution whose path has been
+	 * replaced without going through setIthWord or addWord
+	 */
+	void invalidate() {
+		score = null;
+		sketch = null;
+		edgeCosts = null;
+		dontLook = new BitSet();
+	}
+
+	/**
+	 * Copy the don't look bits of another solution, so that a mutated child skips the regions that did not change
+	 */
+	void inheritDontLook(Solution parent) {
+		dontLook = (BitSet) parent.dontLook.clone();
+	}
+
 	/**
 	 * @return a string representation of the lock, with the letter that have been selected
 	 */
@@ -66,24 +358,24 @@ public class Solution implements Comparable<Solution> {
 	public boolean equals(Object obj) {
 		if (obj == null) return false;
 		if (this == obj) return true;
-		if (this.getClass() != obj.getClass()) return false;
+		if (!(obj instanceof Solution)) return false;
 		Solution that = (Solution) obj;
-		for (int w = 0; w < path.size(); w++) {
-			if (!this.path.get(w).equals(that.path.get(w))) return false;
+		if (this.getLength() != that.getLength()) return false;
+		// Equal paths have equal scores and sketches, so most other paths are told apart without a scan
+		if (this.getScore() != that.getScore()) return false;
+		if (!Arrays.equals(this.getSketch(), that.getSketch())) return false;
+		for (int w = 0; w < getLength(); w++) {
+			if (!this.getIthWord(w).equals(that.getIthWord(w))) return false;
 		}
 		return true;
 	}
 
 	/**
-	 * @return an appropriate hash code for the lock
+	 * @return a hash code made from the score and the sketch, which equal paths share
 	 */
 	@Override
 	public int hashCode() {
-		int retVal = 0;
-		for (int w = 0; w < path.size(); w++) {
-			retVal = retVal * 31 + path.get(w);
-		}
-		return retVal;
+		return 31 * Double.hashCode(getScore()) + Arrays.hashCode(getSketch());
 	}
 
 	@Override
@@ -0,0 +1,86 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Saves the best path found for a lock so that later runs on the same lock can start from it.
+ * Each lock has one file, named after its fingerprint, holding a magic number, a format version,
+ * the fingerprint, the score, the number of words and the word indices in path order.
+ */
+public final class SolutionStore {
+	private static final int MAGIC = 0x434c5042; // "CLPB", the first four bytes of every file
+	private static final int VERSION = 1; // The version of the format written by save()
+	static String DIRECTORY = "."; // The directory the paths are saved in
+
+	private SolutionStore() {
+	}
+
+	/**
+	 * @return the file that holds the saved path of the lock
+	 */
+	static File fileFor(Lock lock) {
+		return new File(DIRECTORY, "bestPath_" + Long.toHexString(lock.getFingerprint()) + ".bin");
+	}
+
+	/**
+	 * Save a path unless a path at least as good is already saved for the lock
+	 * @return true iff the path was written
+	 */
+	static synchronized boolean save(Lock lock, Solution solution) throws IOException {
+		if (solution.getLength() != lock.getWordCount()) {
+			throw new IllegalArgumentException("Only complete paths can be saved.");
+		}
+		Solution saved = load(lock);
+		if (saved != null && saved.getScore() <= solution.getScore()) return false;
+
+		// Write to a temporary file and rename it, so that a reader never sees a partial file
+		File file = fileFor(lock);
+		File temp = new File(file.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(lock.getFingerprint());
+			out.writeDouble(solution.getScore());
+			out.writeInt(solution.getLength());
+			for (int i = 0; i < solution.getLength(); i++) {
+				out.writeInt(solution.getIthWord(i));
+			}
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		return true;
+	}
+
+	/**
+	 * @return the path saved for the lock, or null if there is none
+	 * @throws IOException if the file cannot be read or does not hold a valid path for the lock
+	 */
+	static Solution load(Lock lock) throws IOException {
+		File file = fileFor(lock);
+		if (!file.exists()) return null;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC) throw new IOException(file + " is not a saved path");
+			int version = in.readInt();
+			if (version != VERSION) throw new IOException(file + " has unknown version " + version);
+			if (in.readLong() != lock.getFingerprint()) throw new IOException(file + " was saved for a different lock");
+			in.readDouble(); // The score is recomputed from the path
+			int length = in.readInt();
+			if (length != lock.getWordCount()) throw new IOException(file + " has " + length + " words, not " + lock.getWordCount());
+			boolean[] used = new boolean[length];
+			Solution solution = new Solution(lock);
+			for (int i = 0; i < length; i++) {
+				int word = in.readInt();
+				if (word < 0 || word >= length || used[word]) throw new IOException(file + " does not hold a valid path");
+				used[word] = true;
+				solution.addWord(word);
+			}
+			return solution;
+		}
+	}
+}
@@ -0,0 +1,144 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * The settings of one search, which start as the parameters in Optimizer.  A config builds engines that
+ * own their random generator, so searches with different configs can run side by side in one JVM.
+ */
+public class SolverConfig {
+	String searchEngine = Optimizer.SEARCH_ENGINE; // GA, SA or LAHC
+	int populationSize = Optimizer.populationSize; // The size of a generation in the GA
+	int generations = Optimizer.generations; // The number of generations in the GA
+	int chains = Optimizer.chains; // The number of parallel chains for SA and LAHC
+	int chainIterations = Optimizer.chainIterations; // The number of moves tried by each SA or LAHC chain
+	String crossover = "EAX"; // The GA crossover: EAX, Resync or OnePoint
+	int targetedMutations = 100; // The maximum number of times the targeted mutation runs on a child
+	int blindMutations = 1000; // The maximum number of times each blind mutation runs on a child
+	boolean steadyState = Optimizer.STEADY_STATE; // Whether each GA child replaces the worst member at once
+	double cloneSimilarity = Optimizer.CLONE_SIMILARITY; // The similarity at which GA members are culled as clones
+	double eliteFraction = Optimizer.ELITE_FRACTION; // The fraction of the GA population kept regardless of similarity
+	boolean warmStart = Optimizer.WARM_START; // Whether to seed the search with the saved best path
+	double warmStartWeight = 0.1; // The weight of the warm start operator among the GA seeds, next to next closest
+	long seed = Optimizer.SEED; // The seed of the random generator of the engine
+	int verbosity = Optimizer.VERBOSITY; // How much output the engine produces; -1 for none
+	double progressiveWeight = 0.2; // The weight of the progressive tiered operator among the GA seeds; 0 leaves it out
+	boolean clusterInit = false; // Whether the cluster decomposition also seeds the search, for diversity
+	int clusterThreads = Runtime.getRuntime().availableProcessors(); // The number of threads of the cluster decomposition
+
+	/**
+	 * @return a copy that can be changed without affecting this config
+	 */
+	SolverConfig copy() {
+		SolverConfig copy = new SolverConfig();
+		copy.searchEngine = searchEngine;
+		copy.populationSize = populationSize;
+		copy.generations = generations;
+		copy.chains = chains;
+		copy.chainIterations = chainIterations;
+		copy.crossover = crossover;
+		copy.targetedMutations = targetedMutations;
+		copy.blindMutations = blindMutations;
+		copy.steadyState = steadyState;
+		copy.cloneSimilarity = cloneSimilarity;
+		copy.eliteFraction = eliteFraction;
+		copy.warmStart = warmStart;
+		copy.warmStartWeight = warmStartWeight;
+		copy.seed = seed;
+		copy.verbosity = verbosity;
+		copy.progressiveWeight = progressiveWeight;
+		copy.clusterInit = clusterInit;
+		copy.clusterThreads = clusterThreads;
+		return copy;
+	}
+
+	/**
+	 * Build the search engine with the operators used by the optimization process
+	 * @return a new engine, which is not shared with any other search
+	 */
+	SearchEngine createEngine() {
+		// The operators used to produce the initial solutions, and the weight that determines how likely each
+		// initialization operator will be used
+		ArrayList<InitializationOperator> initOps = new ArrayList<>();
+		ArrayList<Double> initOpWeights = new ArrayList<>();
+		initOps.add(new InitOpNextClosest());
+		initOpWeights.add(1.0);
+		// The warm start paths are copies of one saved path, so they only make up a share of the seeds and next
+		// closest keeps the population diverse
+		InitializationOperator warmStartOp = null;
+		if (warmStart) {
+			warmStartOp = new InitOpWarmStart();
+			initOps.add(warmStartOp);
+			initOpWeights.add(warmStartWeight);
+		}
+		if (progressiveWeight > 0.0) {
+			// The progressive paths are a little worse than next closest and cost more to build, so they
+			// only make up a share of the seeds
+			initOps.add(new InitOpProgressive());
+			initOpWeights.add(progressiveWeight);
+		}
+		// The cluster decomposition is left out unless asked for: its paths are worse than next closest, since
+		// finishing each cluster before leaving it visits costly words too early for the latency score
+		if (clusterInit) {
+			initOps.add(new InitOpCluster(200, 10, 20, clusterThreads));
+			initOpWeights.add(1.0);
+		}
+		InitializationOperator[] initOpArray = initOps.toArray(new InitializationOperator[0]);
+		double[] initOpWeightArray = new double[initOpWeights.size()];
+		for (int i = 0; i < initOpWeightArray.length; i++) {
+			initOpWeightArray[i] = initOpWeights.get(i);
+		}
+
+		// The operator used to combine parents in the GA
+		CrossoverOperator crossoverOperator;
+		if (crossover.equals("EAX")) crossoverOperator = new CrossoverEAX();
+		else if (crossover.equals("Resync")) crossoverOperator = new CrossoverResync();
+		else if (crossover.equals("OnePoint")) crossoverOperator = new CrossoverOnePoint();
+		else throw new IllegalArgumentException("Unknown crossover: " + crossover);
+
+		// A list of mutation operators to apply to the solutions
+		MutationOperator[] mutationOperators = { new MutateTargeted(),
+												 new MutateReverse(), new MutateShift(),
+												 new MutateReverse(), new MutateShift(),
+												 new MutateReverse(), new MutateShift()};
+		// The maximum number of times each mutation operator will run
+		int[] mutationMaxTimes = {targetedMutations, blindMutations, blindMutations, blindMutations,
+								  blindMutations, blindMutations, blindMutations};
+
+		// Each chain improves a single solution, so the chains start from the saved path when there is one
+		InitializationOperator chainStartOp = warmStart ? warmStartOp : initOpArray[0];
+
+		SearchEngine engine;
+		if (searchEngine.equals("GA")) {
+			EngineGA ga = new EngineGA(initOpArray, initOpWeightArray, populationSize, generations, crossoverOperator,
+					mutationOperators, mutationMaxTimes, steadyState);
+			ga.setDiversity(cloneSimilarity, (int) (eliteFraction * populationSize));
+			engine = ga;
+		}
+		else if (searchEngine.equals("SA")) {
+			engine = new EngineAnnealing(chainStartOp, mutationOperators, chains, chainIterations);
+		}
+		else if (searchEngine.equals("LAHC")) {
+			engine = new EngineLateAcceptance(chainStartOp, mutationOperators, chains, chainIterations);
+		}
+		else {
+			throw new IllegalArgumentException("Unknown search engine: " + searchEngine);
+		}
+		engine.setRandom(new Random(seed));
+		engine.setVerbosity(verbosity);
+		return engine;
+	}
+
+	@Override
+	public String toString() {
+		String settings = "searchEngine=" + searchEngine;
+		if (searchEngine.equals("GA")) {
+			settings += " populationSize=" + populationSize + " crossover=" + crossover + " targetedMutations=" + targetedMutations
+					+ " blindMutations=" + blindMutations + " steadyState=" + steadyState + " cloneSimilarity=" + cloneSimilarity
+					+ " eliteFraction=" + eliteFraction;
+		}
+		else {
+			settings += " chains=" + chains;
+		}
+		return settings + " seed=" + seed;
+	}
+}
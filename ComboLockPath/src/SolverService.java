@@ -0,0 +1,217 @@
+/**
+ * A long-lived local service that runs solve and fitness jobs over HTTP.  Built locks are kept
+ * in an LRU cache so that repeat jobs on the same configuration skip the start-up cost.
+ *
+ * POST /solve?populationSize=100&generations=100&timeMs=60000 with the wheel configuration as the body
+ * (the same format as the standard input of Optimizer) streams one line per improvement of the best
+ * solution, followed by a final "done" line, or an "error" line if the job fails after the stream has started.
+ * Parameters out of range are rejected with 400.  POST /fitness returns the word count and the lower bound.
+ */
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class SolverService {
+	/*************************************************
+	 *  PARAMETERS TO CONTROL THE SERVICE
+	 **************************************************/
+	static int PORT = 8085; // The localhost port the service listens on
+	static int WORKERS = Runtime.getRuntime().availableProcessors(); // The number of jobs that run at once
+	static int QUEUE_SIZE = 16; // The number of jobs that may wait for a worker before new jobs are rejected
+	static int CACHE_SIZE = 8; // The number of built locks kept in the cache
+	static long DEFAULT_TIME_MS = 60000; // The time budget of a solve job that does not set one
+	static long MAX_TIME_MS = 24 * 3600 * 1000L; // The largest time budget a solve job may ask for
+	static int MAX_POPULATION_SIZE = 10000; // The largest GA population a solve job may ask for
+
+	private LockCache cache = new LockCache(CACHE_SIZE);
+	private ThreadPoolExecutor executor = new ThreadPoolExecutor(WORKERS, WORKERS, 0L, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(QUEUE_SIZE));
+
+	/**
+	 * Start the service
+	 * @param args not used
+	 */
+	public static void main(String[] args) throws IOException {
+		Optimizer.prng = new Random(Optimizer.SEED);
+		new SolverService().start();
+	}
+
+	private void start() throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), PORT), 0);
+		server.createContext("/solve", exchange -> submit(exchange, true));
+		server.createContext("/fitness", exchange -> submit(exchange, false));
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+		System.out.println("Solver service listening on port " + PORT);
+	}
+
+	/**
+	 * Read a job from the request and queue it on the bounded executor
+	 * @param solveJob true for a solve job, false for a fitness job
+	 */
+	private void submit(HttpExchange exchange, boolean solveJob) throws IOException {
+		if (!exchange.getRequestMethod().equals("POST")) {
+			respond(exchange, 405, "Use POST\n");
+			return;
+		}
+		String[] wheels;
+		HashMap<String, String> params;
+		try {
+			wheels = readWheels(exchange);
+			params = readParams(exchange);
+			checkParams(params);
+		} catch (RuntimeException e) {
+			respond(exchange, 400, "Bad request: " + e.getMessage() + "\n");
+			return;
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					if (solveJob) solve(exchange, wheels, params);
+					else fitness(exchange, wheels, params);
+				} catch (IOException | RuntimeException e) {
+					System.out.println("Job failed: " + e);
+					reportFailure(exchange, e);
+				} finally {
+					exchange.close();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			respond(exchange, 503, "Too many jobs\n");
+		}
+	}
+
+	private void solve(HttpExchange exchange, String[] wheels, HashMap<String, String> params) throws IOException {
+		int populationSize = Integer.parseInt(params.getOrDefault("populationSize", String.valueOf(Optimizer.populationSize)));
+		int generations = Integer.parseInt(params.getOrDefault("generations", String.valueOf(Optimizer.generations)));
+		long timeMs = Long.parseLong(params.getOrDefault("timeMs", String.valueOf(DEFAULT_TIME_MS)));
+		int minDistance = Integer.parseInt(params.getOrDefault("minDistance", String.valueOf(Optimizer.MIN_DISTANCE_FROM_START_WORD)));
+
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(200, 0);
+		PrintWriter out = new PrintWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+		long start = System.currentTimeMillis();
+		Lock lock = cache.get(wheels, minDistance);
+		out.println("words " + lock.getWordCount());
+		out.flush();
+
+		SearchEngine engine = Optimizer.createEngine(populationSize, generations);
+		engine.setDeadline(start + timeMs);
+		engine.setListener(best -> {
+			synchronized (out) {
+				out.println("best " + best.getScore() + " ms " + (System.currentTimeMillis() - start));
+				out.flush();
+			}
+		});
+		Solution best = engine.run(lock);
+		if (Optimizer.WARM_START) Optimizer.saveBest(lock, best);
+		synchronized (out) {
+			out.println("done " + best.getScore() + " ms " + (System.currentTimeMillis() - start));
+			out.close();
+		}
+	}
+
+	private void fitness(HttpExchange exchange, String[] wheels, HashMap<String, String> params) throws IOException {
+		int minDistance = Integer.parseInt(params.getOrDefault("minDistance", String.valueOf(Optimizer.MIN_DISTANCE_FROM_START_WORD)));
+		Lock lock = cache.get(wheels, minDistance);
+		respond(exchange, 200, "words " + lock.getWordCount() + "\nfitness " + lock.getFitness() + "\n");
+	}
+
+	/**
+	 * Read the wheel count followed by one line of letters per wheel
+	 */
+	private String[] readWheels(HttpExchange exchange) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+		String line = reader.readLine();
+		if (line == null) throw new IllegalArgumentException("missing wheel count");
+		int wheelCount = Integer.valueOf(line.trim());
+		if (wheelCount < 1) throw new IllegalArgumentException("the wheel count must be positive");
+		String[] wheels = new String[wheelCount];
+		for (int i = 0; i < wheelCount; i++) {
+			line = reader.readLine();
+			if (line == null || line.isEmpty()) throw new IllegalArgumentException("missing wheel " + (i + 1));
+			wheels[i] = line.toLowerCase();
+		}
+		return wheels;
+	}
+
+	/**
+	 * Parse the query string into a map of parameter names to values
+	 */
+	private HashMap<String, String> readParams(HttpExchange exchange) {
+		HashMap<String, String> params = new HashMap<>();
+		String query = exchange.getRequestURI().getQuery();
+		if (query == null) return params;
+		for (String pair: query.split("&")) {
+			int split = pair.indexOf('=');
+			if (split <= 0) throw new IllegalArgumentException("malformed parameter " + pair);
+			String value = pair.substring(split + 1);
+			Long.parseLong(value); // Every parameter is a number
+			params.put(pair.substring(0, split), value);
+		}
+		return params;
+	}
+
+	/**
+	 * Check that the numeric parameters are in range, so that a bad job is rejected before its response starts
+	 */
+	private void checkParams(HashMap<String, String> params) {
+		checkRange(params, "populationSize", 2, MAX_POPULATION_SIZE);
+		checkRange(params, "generations", 1, Integer.MAX_VALUE);
+		checkRange(params, "timeMs", 1, MAX_TIME_MS);
+		checkRange(params, "minDistance", 0, Integer.MAX_VALUE);
+	}
+
+	private void checkRange(HashMap<String, String> params, String name, long min, long max) {
+		String value = params.get(name);
+		if (value == null) return;
+		long number = Long.parseLong(value);
+		if (number < min || number > max) {
+			throw new IllegalArgumentException(name + " must be between " + min + " and " + max);
+		}
+	}
+
+	/**
+	 * Tell the client that a job failed, with an error status if the response has not started, or else with
+	 * an error line at the end of the stream
+	 */
+	private void reportFailure(HttpExchange exchange, Exception e) {
+		try {
+			if (exchange.getResponseCode() == -1) {
+				respond(exchange, 500, "error " + e.getMessage() + "\n");
+			}
+			else {
+				OutputStream os = exchange.getResponseBody();
+				os.write(("error " + e.getMessage() + "\n").getBytes(StandardCharsets.UTF_8));
+				os.flush();
+			}
+		} catch (IOException ignored) {
+			// The client has gone, so there is no one to tell
+		}
+	}
+
+	private void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		OutputStream os = exchange.getResponseBody();
+		os.write(bytes);
+		os.close();
+	}
+}
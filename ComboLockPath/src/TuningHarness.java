@@ -0,0 +1,157 @@
+/**
+ * The class with the main method to tune the optimization parameters for a lock.
+ *
+ * Random configurations of the search are raced against each other by successive halving: every round
+ * runs the surviving configurations side by side on one shared lock, each for an equal share of the
+ * round's time budget, and keeps the better half for the next round, where each gets twice the time.
+ * Each trial stops at a wall-clock deadline and runs on a single thread, so with THREADS trials at once
+ * a round takes about its budget divided by THREADS.
+ * The lock is read from standard input in the same format as Optimizer.
+ */
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TuningHarness {
+	/*************************************************
+	 *  PARAMETERS TO CONTROL THE TUNING PROCESS
+	 **************************************************/
+	static int SEED = 4; // A seed for the random number generator that draws the configurations
+	static int CONFIGURATIONS = 16; // The number of configurations in the first round
+	static long TIME_BUDGET_MS = 600000; // The total wall-clock time of the trials, summed over all trials, in ms
+	static int THREADS = Runtime.getRuntime().availableProcessors(); // The number of trials that run at once
+	static int MIN_DISTANCE_FROM_START_WORD = 0; // The minimum distance from the starting word for a word to
+	                                             // be considered as a combination
+
+	// The values that the configurations are drawn from
+	private static final String[] SEARCH_ENGINES = {"GA", "GA", "GA", "SA", "LAHC"}; // GA is drawn most often
+	private static final int[] POPULATION_SIZES = {20, 50, 100, 200};
+	private static final String[] CROSSOVERS = {"EAX", "EAX", "Resync"};
+	private static final int[] TARGETED_MUTATIONS = {1, 20, 100, 300};
+	private static final int[] BLIND_MUTATIONS = {10, 100, 1000};
+	private static final double[] CLONE_SIMILARITIES = {0.9, 0.95, 2.0};
+
+	/**
+	 * The result of running one configuration in one round
+	 */
+	private static class Trial {
+		SolverConfig config;
+		double score = Double.MAX_VALUE; // The best score found, or the largest value if the trial failed
+	}
+
+	/**
+	 * The driver method for the tuning process
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		// Read wheel configurations
+		Scanner sc = new Scanner(System.in);
+		int wheelCount = Integer.valueOf(sc.nextLine());
+		String[] wheels = new String[wheelCount];
+		for (int i = 0; i < wheelCount; i++) {
+			wheels[i] = sc.nextLine().toLowerCase();
+		}
+		Lock lock = new Lock(wheels, MIN_DISTANCE_FROM_START_WORD);
+		// Fill in the lazily built parts of the lock before it is shared by the trials
+		lock.getFitness();
+		lock.getNearest(-1);
+
+		Random random = new Random(SEED);
+		ArrayList<SolverConfig> configs = new ArrayList<>();
+		for (int c = 0; c < CONFIGURATIONS; c++) {
+			configs.add(drawConfig(random));
+		}
+		Trial best = race(lock, configs, TIME_BUDGET_MS);
+		System.out.println("Best configuration: " + best.config + " score: " + best.score);
+	}
+
+	/**
+	 * @return a random configuration whose engine is silent, uses one thread and stops only at its deadline
+	 */
+	private static SolverConfig drawConfig(Random random) {
+		SolverConfig config = new SolverConfig();
+		config.searchEngine = SEARCH_ENGINES[random.nextInt(SEARCH_ENGINES.length)];
+		config.populationSize = POPULATION_SIZES[random.nextInt(POPULATION_SIZES.length)];
+		config.crossover = CROSSOVERS[random.nextInt(CROSSOVERS.length)];
+		config.targetedMutations = TARGETED_MUTATIONS[random.nextInt(TARGETED_MUTATIONS.length)];
+		config.blindMutations = BLIND_MUTATIONS[random.nextInt(BLIND_MUTATIONS.length)];
+		config.steadyState = random.nextBoolean();
+		config.cloneSimilarity = CLONE_SIMILARITIES[random.nextInt(CLONE_SIMILARITIES.length)];
+		config.seed = random.nextLong();
+		config.generations = Integer.MAX_VALUE;
+		config.chains = 1;
+		config.chainIterations = Integer.MAX_VALUE;
+		config.warmStart = false;
+		config.progressiveWeight = 0.0; // A progressive seed of a large lock can take longer than a whole trial
+		config.clusterInit = false;
+		config.clusterThreads = 1;
+		config.verbosity = -1;
+		return config;
+	}
+
+	/**
+	 * Race the configurations by successive halving
+	 * @param budgetMs the total wall-clock time of all the trials, split evenly between the rounds
+	 * @return the trial of the configuration that won the last round
+	 */
+	private static Trial race(Lock lock, ArrayList<SolverConfig> configs, long budgetMs) {
+		// Halve the field until the last round is between two configurations
+		int rounds = 0;
+		for (int n = configs.size(); n > 1; n = (n + 1) / 2) rounds++;
+		rounds = Math.max(1, rounds);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			ArrayList<Trial> survivors = new ArrayList<>();
+			for (SolverConfig config: configs) {
+				Trial trial = new Trial();
+				trial.config = config;
+				survivors.add(trial);
+			}
+			for (int r = 0; r < rounds; r++) {
+				long trialMs = budgetMs / rounds / survivors.size();
+				System.out.println("Round " + (r + 1) + ": " + survivors.size() + " configurations, " + trialMs + " ms each");
+				ArrayList<Future<Double>> futures = new ArrayList<>();
+				for (Trial trial: survivors) {
+					futures.add(executor.submit(() -> runTrial(lock, trial.config, trialMs)));
+				}
+				for (int t = 0; t < survivors.size(); t++) {
+					Trial trial = survivors.get(t);
+					try {
+						trial.score = futures.get(t).get();
+					} catch (ExecutionException e) {
+						System.out.println("Trial failed: " + e.getCause() + " " + trial.config);
+						trial.score = Double.MAX_VALUE;
+					}
+				}
+				survivors.sort((a, b) -> Double.compare(a.score, b.score));
+				for (Trial trial: survivors) {
+					System.out.println("  " + trial.score + " " + trial.config);
+				}
+				// Keep the better half for the next round
+				int keep = (survivors.size() + 1) / 2;
+				while (survivors.size() > keep) {
+					survivors.remove(survivors.size() - 1);
+				}
+			}
+			return survivors.get(0);
+		} catch (InterruptedException e) {
+			throw new RuntimeException("Tuning was interrupted", e);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Run one configuration until its time is up
+	 * @return the best score found
+	 */
+	private static double runTrial(Lock lock, SolverConfig config, long timeMs) {
+		SearchEngine engine = config.createEngine();
+		engine.setDeadline(System.currentTimeMillis() + timeMs);
+		return engine.run(lock).getScore();
+	}
+}